@@ -0,0 +1,144 @@
+package com.ouroboros.pestadiumbookingbe.benchmark;
+
+import com.ouroboros.pestadiumbookingbe.PeStadiumBookingBeApplication;
+import com.ouroboros.pestadiumbookingbe.model.*;
+import com.ouroboros.pestadiumbookingbe.repository.BookingRepository;
+import com.ouroboros.pestadiumbookingbe.repository.ProfileRepository;
+import com.ouroboros.pestadiumbookingbe.repository.SportHallRepository;
+import com.ouroboros.pestadiumbookingbe.repository.SportRepository;
+import com.ouroboros.pestadiumbookingbe.repository.TimeSlotRepository;
+import com.ouroboros.pestadiumbookingbe.service.ReferenceDataCache;
+import com.ouroboros.pestadiumbookingbe.service.SlotOccupancyIndex;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The application started against an in-memory H2 database (PostgreSQL mode) and seeded with a synthetic data set:
+ * {@value #HALLS} halls with {@value #SLOTS} slots each, every cell booked from tomorrow on until {@code bookings}
+ * bookings exist, spread over one profile per five bookings. One extra hall and profile are left without bookings,
+ * so benchmarks have a cell where creation succeeds.
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    static final int HALLS = 10;
+    static final int SLOTS = 8;
+    private static final int BATCH = 1000;
+
+    final ConfigurableApplicationContext context;
+    final UUID sportId;
+    final List<UUID> hallIds = new ArrayList<>();
+    final List<UUID> slotIds = new ArrayList<>();
+    final List<Profile> profiles = new ArrayList<>();
+    final List<Booking> bookings = new ArrayList<>();
+    final UUID freeHallId;
+    final Profile freeProfile;
+
+    private BenchmarkContext(int bookingCount) {
+        context = new SpringApplicationBuilder(PeStadiumBookingBeApplication.class)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--server.port=0",
+                        "--supabase.jwt-secret=" + JwtAuthFilterBenchmark.SECRET,
+                        "--notifications.outbox.enabled=false",
+                        "--logging.level.root=WARN");
+
+        Sport sport = new Sport();
+        sport.setName("Benchmark Sport");
+        sport.setActive(true);
+        sportId = bean(SportRepository.class).save(sport).getId();
+
+        SportHallRepository sportHallRepository = bean(SportHallRepository.class);
+        for (int h = 0; h <= HALLS; h++) {
+            SportHall hall = new SportHall();
+            hall.setSportId(sportId);
+            hall.setName("Hall " + h);
+            hall.setLocation(h % 2 == 0 ? SportHallLocation.indoor : SportHallLocation.outdoor);
+            hall.setCapacity(20);
+            hallIds.add(sportHallRepository.save(hall).getId());
+        }
+        freeHallId = hallIds.removeLast();
+
+        TimeSlotRepository timeSlotRepository = bean(TimeSlotRepository.class);
+        for (int s = 0; s < SLOTS; s++) {
+            TimeSlot slot = new TimeSlot();
+            slot.setStartTime(LocalTime.of(7 + s, 0));
+            slot.setEndTime(LocalTime.of(8 + s, 0));
+            slot.setDurationMinutes(60);
+            slot.setActive(true);
+            slotIds.add(timeSlotRepository.save(slot).getId());
+        }
+
+        // At least one profile per cell of a day, so nobody holds two bookings on the same date
+        int profileCount = Math.max(HALLS * SLOTS, bookingCount / 5);
+        ProfileRepository profileRepository = bean(ProfileRepository.class);
+        List<Profile> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i <= profileCount; i++) {
+            Profile profile = new Profile();
+            profile.setEmail("bench" + i + "@vgu.edu.vn");
+            profile.setStudentId(String.format("%08d", i));
+            profile.setFullName("Benchmark User " + i);
+            profile.setType(i % 50 == 0 ? ProfileType.admin : ProfileType.user);
+            batch.add(profile);
+            if (batch.size() == BATCH) {
+                profiles.addAll(profileRepository.saveAll(batch));
+                batch.clear();
+            }
+        }
+        profiles.addAll(profileRepository.saveAll(batch));
+        freeProfile = profiles.removeLast();
+
+        BookingRepository bookingRepository = bean(BookingRepository.class);
+        List<Booking> pending = new ArrayList<>(BATCH);
+        LocalDate firstDate = LocalDate.now().plusDays(1);
+        for (int i = 0; i < bookingCount; i++) {
+            int cell = i % (HALLS * SLOTS);
+            Booking booking = new Booking();
+            booking.setSportHallId(hallIds.get(cell / SLOTS));
+            booking.setTimeSlotId(slotIds.get(cell % SLOTS));
+            booking.setBookingDate(firstDate.plusDays(i / (HALLS * SLOTS)));
+            booking.setSportId(sportId);
+            booking.setUserId(profiles.get(i % profiles.size()).getId());
+            booking.setPurpose("Benchmark booking " + i);
+            booking.setStatus(i % 10 == 0 ? Status.rejected : i % 3 == 0 ? Status.confirmed : Status.pending);
+            pending.add(booking);
+            if (pending.size() == BATCH) {
+                bookings.addAll(bookingRepository.saveAll(pending));
+                pending.clear();
+            }
+        }
+        bookings.addAll(bookingRepository.saveAll(pending));
+
+        // The caches were filled at startup, before there was any data
+        bean(ReferenceDataCache.class).refresh();
+        bean(SlotOccupancyIndex.class).warmUp();
+    }
+
+    static BenchmarkContext start(int bookingCount) {
+        return new BenchmarkContext(bookingCount);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // The first seeded booking that still holds its cell
+    Booking activeBooking() {
+        return bookings.stream()
+                .filter(b -> b.getStatus() != Status.rejected)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Benchmarks need at least one active booking"));
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,53 @@
+package com.ouroboros.pestadiumbookingbe.benchmark;
+
+import com.ouroboros.pestadiumbookingbe.dto.BookingSummary;
+import com.ouroboros.pestadiumbookingbe.model.Booking;
+import com.ouroboros.pestadiumbookingbe.util.BookingMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingMapperBenchmark {
+
+    @Param({"1000", "100000"})
+    public int bookings;
+
+    // Size of the list handed to toBookingSummaries, as for a page of results
+    @Param({"50"})
+    public int batchSize;
+
+    private BenchmarkContext data;
+    private BookingMapper bookingMapper;
+    private Booking booking;
+    private List<Booking> batch;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        data = BenchmarkContext.start(bookings);
+        bookingMapper = data.bean(BookingMapper.class);
+        booking = data.activeBooking();
+        batch = data.bookings.subList(0, Math.min(batchSize, data.bookings.size()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public BookingSummary toBookingSummary() {
+        return bookingMapper.toBookingSummary(booking);
+    }
+
+    @Benchmark
+    public List<BookingSummary> toBookingSummaries() {
+        return bookingMapper.toBookingSummaries(batch);
+    }
+}
@@ -0,0 +1,90 @@
+package com.ouroboros.pestadiumbookingbe.benchmark;
+
+import com.ouroboros.pestadiumbookingbe.dto.RecurringBookingResult;
+import com.ouroboros.pestadiumbookingbe.exception.BadRequestException;
+import com.ouroboros.pestadiumbookingbe.exception.ConflictException;
+import com.ouroboros.pestadiumbookingbe.model.Booking;
+import com.ouroboros.pestadiumbookingbe.service.BookingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BookingService#createBooking} on its three outcomes: rejected by validation, rejected by the occupancy index,
+ * and inserted. Successful inserts run in a transaction that is rolled back, so every invocation sees the same data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingServiceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int bookings;
+
+    private BenchmarkContext data;
+    private BookingService bookingService;
+    private TransactionTemplate rollbackTemplate;
+    private Booking taken;
+    private LocalDate tomorrow;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        data = BenchmarkContext.start(bookings);
+        bookingService = data.bean(BookingService.class);
+        rollbackTemplate = new TransactionTemplate(data.bean(PlatformTransactionManager.class));
+        taken = data.activeBooking();
+        tomorrow = LocalDate.now().plusDays(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public Object createBooking_invalidInput() {
+        try {
+            return bookingService.createBooking(data.freeProfile.getId(), data.freeHallId, data.sportId,
+                    tomorrow.minusDays(2), data.slotIds.getFirst(), "Benchmark");
+        } catch (BadRequestException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object createBooking_conflict() {
+        try {
+            return bookingService.createBooking(data.freeProfile.getId(), taken.getSportHallId(), taken.getSportId(),
+                    taken.getBookingDate(), taken.getTimeSlotId(), "Benchmark");
+        } catch (ConflictException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Booking createBooking_success() {
+        return rollbackTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return bookingService.createBooking(data.freeProfile.getId(), data.freeHallId, data.sportId,
+                    tomorrow, data.slotIds.getFirst(), "Benchmark");
+        });
+    }
+
+    // A semester of weekly bookings in one call
+    @Benchmark
+    public RecurringBookingResult createRecurringBooking() {
+        return rollbackTemplate.execute(status -> {
+            status.setRollbackOnly();
+            UUID slotId = data.slotIds.getLast();
+            return bookingService.createRecurringBooking(data.freeProfile.getId(), data.freeHallId, data.sportId,
+                    slotId, tomorrow, tomorrow.plusWeeks(15), 1, "Benchmark");
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package com.ouroboros.pestadiumbookingbe.benchmark;
+
+import com.ouroboros.pestadiumbookingbe.dto.BookingSummary;
+import com.ouroboros.pestadiumbookingbe.util.IcsFileGenerator;
+import net.fortuna.ical4j.data.CalendarOutputter;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.component.VEvent;
+import net.fortuna.ical4j.model.parameter.Cn;
+import net.fortuna.ical4j.model.property.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ICS attachment of every booking mail, next to the ical4j based generator it replaced. Needs no database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IcsFileGeneratorBenchmark {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+
+    // Length of the purpose text; long ones are escaped and folded over several lines
+    @Param({"20", "500"})
+    public int purposeLength;
+
+    private final IcsFileGenerator icsFileGenerator = new IcsFileGenerator();
+    private BookingSummary summary;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String purpose = "Team practice; bring shoes, water and a spare shirt. ".repeat(purposeLength / 50 + 1).substring(0, purposeLength);
+        summary = new BookingSummary("user@vgu.edu.vn", LocalDate.now().plusDays(7),
+                LocalTime.of(7, 0), LocalTime.of(8, 30), "Hall A", purpose, "");
+        summary.setBookingId(UUID.randomUUID());
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream generateIcsStream() {
+        return icsFileGenerator.generateIcsStream(summary);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream generateIcsStream_ical4j() throws Exception {
+        DateTime start = new DateTime(ZonedDateTime.of(summary.getBookingDate(), summary.getStartTime(), ZONE).toInstant().toEpochMilli());
+        start.setUtc(true);
+        DateTime end = new DateTime(ZonedDateTime.of(summary.getBookingDate(), summary.getEndTime(), ZONE).toInstant().toEpochMilli());
+        end.setUtc(true);
+
+        VEvent meeting = new VEvent();
+        meeting.getProperties().add(new DtStart(start));
+        meeting.getProperties().add(new DtEnd(end));
+        meeting.getProperties().add(new Summary("Booking for " + summary.getSportHallName()));
+        Organizer organizer = new Organizer(URI.create("mailto:noreply@mg.api-stadium-booking.systems"));
+        organizer.getParameters().add(new Cn("Group Ouroboros"));
+        meeting.getProperties().add(organizer);
+        meeting.getProperties().add(new Description("Purpose: " + summary.getPurpose()));
+        meeting.getProperties().add(new Uid(summary.getBookingId() + "@api-stadium-booking.systems"));
+        meeting.getProperties().add(new Location("Sport Hall: " + summary.getSportHallName()));
+        Calendar calendar = new Calendar();
+        calendar.getProperties().add(new ProdId("-//PE Stadium Booking//iCal4j 1.0//EN"));
+        calendar.getProperties().add(Version.VERSION_2_0);
+        calendar.getProperties().add(CalScale.GREGORIAN);
+        calendar.getComponents().add(meeting);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CalendarOutputter().output(calendar, out);
+        return out;
+    }
+}
@@ -0,0 +1,90 @@
+package com.ouroboros.pestadiumbookingbe.benchmark;
+
+import com.ouroboros.pestadiumbookingbe.config.JwtAuthFilter;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through {@link JwtAuthFilter}. With {@code cached} the same few tokens come back, as from
+ * a client making several calls; without it every request carries a token the filter has not verified yet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    static final String SECRET = "benchmark-secret-that-is-at-least-32-bytes-long";
+    private static final int TOKENS = 1024;
+
+    @Param({"1000"})
+    public int bookings;
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private BenchmarkContext data;
+    private JwtAuthFilter jwtAuthFilter;
+    private String[] headers;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        data = BenchmarkContext.start(bookings);
+        jwtAuthFilter = data.bean(JwtAuthFilter.class);
+        if (!cached) {
+            // Each new token evicts the previous one, so rotating through many tokens never hits
+            ReflectionTestUtils.setField(jwtAuthFilter, "tokenCacheMaxSize", 1);
+        }
+
+        int distinct = cached ? Math.min(16, data.profiles.size()) : TOKENS;
+        headers = new String[distinct];
+        Instant expiry = Instant.now().plus(1, ChronoUnit.DAYS);
+        for (int i = 0; i < distinct; i++) {
+            var profile = data.profiles.get(i % data.profiles.size());
+            String token = Jwts.builder()
+                    .setSubject(profile.getId().toString())
+                    .claim("email", profile.getEmail())
+                    .claim("user_metadata", Map.of("full_name", profile.getFullName()))
+                    .setIssuedAt(new Date(i))
+                    .setExpiration(Date.from(expiry))
+                    .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                    .compact();
+            headers[i] = "Bearer " + token;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public int doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings/get-bookings");
+        request.addHeader("Authorization", headers[next++ % headers.length]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            jwtAuthFilter.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response.getStatus();
+    }
+}
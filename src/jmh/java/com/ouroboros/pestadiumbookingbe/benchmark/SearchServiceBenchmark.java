@@ -0,0 +1,51 @@
+package com.ouroboros.pestadiumbookingbe.benchmark;
+
+import com.ouroboros.pestadiumbookingbe.model.Booking;
+import com.ouroboros.pestadiumbookingbe.model.SportHallLocation;
+import com.ouroboros.pestadiumbookingbe.model.Status;
+import com.ouroboros.pestadiumbookingbe.service.SearchService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchServiceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int bookings;
+
+    private BenchmarkContext data;
+    private SearchService searchService;
+    private String studentId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        data = BenchmarkContext.start(bookings);
+        searchService = data.bean(SearchService.class);
+        studentId = data.profiles.get(1).getStudentId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.close();
+    }
+
+    // Selective: the handful of bookings of one student
+    @Benchmark
+    public List<Booking> filterBookings_byStudentId() {
+        return searchService.filterBookings(Optional.of(studentId), Optional.empty(), Optional.empty(), Optional.empty());
+    }
+
+    // Broad: about a third of the table
+    @Benchmark
+    public List<Booking> filterBookings_byLocationAndStatus() {
+        return searchService.filterBookings(Optional.empty(), Optional.of(SportHallLocation.indoor), Optional.empty(), Optional.of(Status.pending));
+    }
+}
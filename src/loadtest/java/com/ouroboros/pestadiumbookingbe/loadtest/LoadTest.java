@@ -0,0 +1,392 @@
+package com.ouroboros.pestadiumbookingbe.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ouroboros.pestadiumbookingbe.PeStadiumBookingBeApplication;
+import com.ouroboros.pestadiumbookingbe.model.*;
+import com.ouroboros.pestadiumbookingbe.repository.BookingRepository;
+import com.ouroboros.pestadiumbookingbe.repository.ProfileRepository;
+import com.ouroboros.pestadiumbookingbe.repository.SportHallRepository;
+import com.ouroboros.pestadiumbookingbe.repository.SportRepository;
+import com.ouroboros.pestadiumbookingbe.repository.TimeSlotRepository;
+import com.ouroboros.pestadiumbookingbe.service.ReferenceDataCache;
+import com.ouroboros.pestadiumbookingbe.service.SlotOccupancyIndex;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Boots the application on H2 with Mailgun replaced by {@link MailgunStub} and authenticates with locally minted
+ * HS256 tokens, then replays the traffic of a semester start and prints latency percentiles, throughput and error
+ * rates per scenario:
+ * <ul>
+ *     <li>stampede: every student asks for the same few slots the moment booking opens</li>
+ *     <li>browse: admins paging through filtered booking lists</li>
+ *     <li>bulk-confirm: admins confirming pending bookings in batches, at the same time as browse</li>
+ * </ul>
+ * Run with {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="users=3000 bookings=50000"}; every
+ * setting has a default, see {@link #main}.
+ */
+public final class LoadTest {
+
+    private static final String SECRET = "load-test-secret-that-is-at-least-32-bytes-long";
+    private static final int HALLS = 10;
+    private static final int SLOTS = 8;
+    private static final int BATCH = 1000;
+
+    private final Map<String, String> settings;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+    private UUID sportId;
+    private final List<UUID> hallIds = new ArrayList<>();
+    private final List<UUID> slotIds = new ArrayList<>();
+    private final List<Profile> students = new ArrayList<>();
+    private Profile admin;
+    private final List<UUID> pendingBookingIds = new ArrayList<>();
+    private final Map<UUID, String> tokens = new HashMap<>();
+
+    private LoadTest(Map<String, String> settings) {
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = new HashMap<>(Map.of(
+                "users", "2000",            // students taking part in the stampede, one request each
+                "hot-slots", "8",           // cells of tomorrow they all compete for
+                "bookings", "20000",        // existing bookings, browsed and confirmed by admins
+                "browse-clients", "20",
+                "browse-seconds", "30",
+                "bulk-clients", "2",
+                "bulk-size", "100",
+                "mail-latency-ms", "150"    // per message, roughly what Mailgun takes to accept one
+        ));
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2 || !settings.containsKey(pair[0])) {
+                throw new IllegalArgumentException("Unknown setting: " + arg + ", expected one of " + settings.keySet());
+            }
+            settings.put(pair[0], pair[1]);
+        }
+
+        try (MailgunStub mailgun = new MailgunStub(Duration.ofMillis(Long.parseLong(settings.get("mail-latency-ms"))))) {
+            new LoadTest(settings).run(mailgun);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        // The application leaves scheduler threads behind
+        System.exit(0);
+    }
+
+    private int setting(String name) {
+        return Integer.parseInt(settings.get(name));
+    }
+
+    private void run(MailgunStub mailgun) throws Exception {
+        start(mailgun);
+        try {
+            seed();
+            System.out.printf("Seeded %d students, %d bookings; running with %s%n", students.size(), setting("bookings"), settings);
+
+            ScenarioResult stampede = stampede();
+            ScenarioResult[] adminWork = browseAndBulkConfirm();
+
+            long mails = awaitMails(mailgun);
+
+            System.out.println();
+            System.out.println(ScenarioResult.header());
+            System.out.println(stampede.report());
+            for (ScenarioResult result : adminWork) {
+                System.out.println(result.report());
+            }
+            System.out.printf("%nstampede: %d bookings created for %d contested slots%n", stampede.count(200), setting("hot-slots"));
+            System.out.printf("mailgun stub: %d messages, %d KiB received%n", mails, mailgun.bytes() / 1024);
+        } finally {
+            context.close();
+        }
+    }
+
+    private void start(MailgunStub mailgun) {
+        context = new SpringApplicationBuilder(PeStadiumBookingBeApplication.class)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--spring.threads.virtual.enabled=true",
+                        "--server.port=0",
+                        "--supabase.jwt-secret=" + SECRET,
+                        "--mailgun.base-url=" + mailgun.baseUrl(),
+                        "--mailgun.batch.window=2s",
+                        "--notifications.outbox.enabled=true",
+                        "--logging.level.root=WARN");
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+    }
+
+    private void seed() {
+        Sport sport = new Sport();
+        sport.setName("Load Test Sport");
+        sport.setActive(true);
+        sportId = context.getBean(SportRepository.class).save(sport).getId();
+
+        for (int h = 0; h < HALLS; h++) {
+            SportHall hall = new SportHall();
+            hall.setSportId(sportId);
+            hall.setName("Hall " + h);
+            hall.setLocation(h % 2 == 0 ? SportHallLocation.indoor : SportHallLocation.outdoor);
+            hall.setCapacity(20);
+            hallIds.add(context.getBean(SportHallRepository.class).save(hall).getId());
+        }
+        for (int s = 0; s < SLOTS; s++) {
+            TimeSlot slot = new TimeSlot();
+            slot.setStartTime(LocalTime.of(7 + s, 0));
+            slot.setEndTime(LocalTime.of(8 + s, 0));
+            slot.setDurationMinutes(60);
+            slot.setActive(true);
+            slotIds.add(context.getBean(TimeSlotRepository.class).save(slot).getId());
+        }
+
+        ProfileRepository profileRepository = context.getBean(ProfileRepository.class);
+        admin = new Profile();
+        admin.setEmail("admin@loadtest.local");
+        admin.setFullName("Load Test Admin");
+        admin.setType(ProfileType.admin);
+        admin = profileRepository.save(admin);
+
+        // At least one student per cell of a day, so seeded bookings stay within the daily quota
+        int studentCount = Math.max(setting("users"), HALLS * SLOTS);
+        List<Profile> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < studentCount; i++) {
+            Profile student = new Profile();
+            student.setEmail("student" + i + "@loadtest.local");
+            student.setStudentId(String.format("%08d", i));
+            student.setFullName("Student " + i);
+            student.setType(ProfileType.user);
+            batch.add(student);
+            if (batch.size() == BATCH || i == studentCount - 1) {
+                students.addAll(profileRepository.saveAll(batch));
+                batch.clear();
+            }
+        }
+
+        // Existing bookings start a month out, so tomorrow is free for the stampede
+        BookingRepository bookingRepository = context.getBean(BookingRepository.class);
+        int bookingCount = setting("bookings");
+        LocalDate firstDate = LocalDate.now().plusDays(30);
+        List<Booking> pending = new ArrayList<>(BATCH);
+        for (int i = 0; i < bookingCount; i++) {
+            int cell = i % (HALLS * SLOTS);
+            Booking booking = new Booking();
+            booking.setSportHallId(hallIds.get(cell / SLOTS));
+            booking.setTimeSlotId(slotIds.get(cell % SLOTS));
+            booking.setBookingDate(firstDate.plusDays(i / (HALLS * SLOTS)));
+            booking.setSportId(sportId);
+            booking.setUserId(students.get(i % students.size()).getId());
+            booking.setPurpose("Seeded booking " + i);
+            booking.setStatus(i % 4 == 0 ? Status.confirmed : Status.pending);
+            pending.add(booking);
+            if (pending.size() == BATCH || i == bookingCount - 1) {
+                for (Booking saved : bookingRepository.saveAll(pending)) {
+                    if (saved.getStatus() == Status.pending) {
+                        pendingBookingIds.add(saved.getId());
+                    }
+                }
+                pending.clear();
+            }
+        }
+
+        context.getBean(ReferenceDataCache.class).refresh();
+        context.getBean(SlotOccupancyIndex.class).warmUp();
+    }
+
+    private String bearer(Profile profile) {
+        return tokens.computeIfAbsent(profile.getId(), id -> "Bearer " + Jwts.builder()
+                .setSubject(id.toString())
+                .claim("email", profile.getEmail())
+                .claim("user_metadata", Map.of("full_name", profile.getFullName()))
+                .setExpiration(Date.from(Instant.now().plus(1, ChronoUnit.DAYS)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact());
+    }
+
+    // All students released at once against a handful of cells; one request each wins, the rest get 409 or 503
+    private ScenarioResult stampede() throws Exception {
+        ScenarioResult result = new ScenarioResult("stampede");
+        int users = setting("users");
+        int hotSlots = Math.min(setting("hot-slots"), HALLS * SLOTS);
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+
+        List<HttpRequest> requests = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            Profile student = students.get(i);
+            int cell = i % hotSlots;
+            Map<String, Object> body = Map.of(
+                    "userId", student.getId(),
+                    "sportHallId", hallIds.get(cell / SLOTS),
+                    "sportId", sportId,
+                    "date", tomorrow,
+                    "timeSlotId", slotIds.get(cell % SLOTS),
+                    "purpose", "Semester training");
+            requests.add(post("/api/bookings/create-booking", student, objectMapper.writeValueAsString(body)));
+        }
+
+        CountDownLatch gate = new CountDownLatch(1);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (HttpRequest request : requests) {
+                clients.execute(() -> {
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    send(request, result);
+                });
+            }
+            result.start();
+            gate.countDown();
+        }
+        result.stop();
+        return result;
+    }
+
+    private ScenarioResult[] browseAndBulkConfirm() {
+        ScenarioResult browse = new ScenarioResult("browse");
+        ScenarioResult bulk = new ScenarioResult("bulk-confirm");
+        long deadline = System.nanoTime() + Duration.ofSeconds(setting("browse-seconds")).toNanos();
+
+        ConcurrentLinkedQueue<List<UUID>> chunks = new ConcurrentLinkedQueue<>();
+        int bulkSize = setting("bulk-size");
+        for (int i = 0; i < pendingBookingIds.size(); i += bulkSize) {
+            chunks.add(pendingBookingIds.subList(i, Math.min(i + bulkSize, pendingBookingIds.size())));
+        }
+
+        browse.start();
+        bulk.start();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < setting("browse-clients"); c++) {
+                clients.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        browseOnce(browse);
+                    }
+                });
+            }
+            for (int c = 0; c < setting("bulk-clients"); c++) {
+                clients.execute(() -> {
+                    List<UUID> chunk;
+                    while (System.nanoTime() < deadline && (chunk = chunks.poll()) != null) {
+                        try {
+                            send(post("/api/bookings/bulk-confirm?confirmedBy=" + admin.getId(), admin,
+                                    objectMapper.writeValueAsString(chunk)), bulk);
+                        } catch (Exception e) {
+                            bulk.record(0, 0);
+                        }
+                    }
+                    bulk.stop();
+                });
+            }
+        }
+        browse.stop();
+        return new ScenarioResult[] {browse, bulk};
+    }
+
+    // A filtered list and up to two further pages of it, like an admin scrolling
+    private void browseOnce(ScenarioResult result) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String query = "location=" + SportHallLocation.values()[random.nextInt(SportHallLocation.values().length)]
+                + "&status=" + (random.nextBoolean() ? Status.pending : Status.confirmed)
+                + "&size=50";
+        String cursor = null;
+        for (int page = 0; page < 3; page++) {
+            String path = "/api/bookings/filter-bookings-page?" + query + (cursor != null ? "&cursor=" + cursor : "");
+            String body = send(get(path, admin), result);
+            if (body == null) {
+                return;
+            }
+            try {
+                JsonNode next = objectMapper.readTree(body).get("nextCursor");
+                if (next == null || next.isNull()) {
+                    return;
+                }
+                cursor = URLEncoder.encode(next.asText(), StandardCharsets.UTF_8);
+            } catch (Exception e) {
+                return;
+            }
+        }
+    }
+
+    private HttpRequest get(String path, Profile as) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", bearer(as))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, Profile as, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", bearer(as))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    // Returns the body of a 2xx response, null otherwise
+    private String send(HttpRequest request, ScenarioResult result) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            result.record(response.statusCode(), System.nanoTime() - start);
+            return response.statusCode() / 100 == 2 ? response.body() : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            result.record(0, System.nanoTime() - start);
+        }
+        return null;
+    }
+
+    // The outbox sends in the background; wait until the stub has been quiet for a few seconds
+    private long awaitMails(MailgunStub mailgun) throws InterruptedException {
+        long last = -1;
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        while (mailgun.messages() != last && System.nanoTime() < deadline) {
+            last = mailgun.messages();
+            Thread.sleep(5000);
+        }
+        return mailgun.messages();
+    }
+}
@@ -0,0 +1,75 @@
+package com.ouroboros.pestadiumbookingbe.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the Mailgun messages API. Accepts every POST to /v3/{domain}/messages after a fixed delay,
+ * answers like Mailgun does and only counts what it received, so notification traffic costs what it costs in
+ * production without sending any mail.
+ */
+final class MailgunStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final Duration latency;
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    MailgunStub(Duration latency) throws IOException {
+        this.latency = latency;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v3/", this::handle);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    long messages() {
+        return messages.get();
+    }
+
+    long bytes() {
+        return bytes.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod()) || !exchange.getRequestURI().getPath().endsWith("/messages")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            bytes.addAndGet(exchange.getRequestBody().readAllBytes().length);
+            if (!latency.isZero()) {
+                Thread.sleep(latency);
+            }
+            messages.incrementAndGet();
+
+            byte[] body = ("{\"id\":\"<" + UUID.randomUUID() + "@stub.mailgun>\",\"message\":\"Queued. Thank you.\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ouroboros.pestadiumbookingbe.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies and response codes of one scenario. Status 0 stands for a request that got no response at all.
+ * Conflicts are an expected answer in a stampede, so only 5xx and missing responses count as errors.
+ */
+final class ScenarioResult {
+
+    private final String name;
+    private final ConcurrentLinkedQueue<Long> latenciesNanos = new ConcurrentLinkedQueue<>();
+    private final Map<Integer, AtomicLong> statuses = new TreeMap<>();
+    private volatile long startNanos;
+    // set by the last client to finish
+    private volatile long endNanos;
+
+    ScenarioResult(String name) {
+        this.name = name;
+    }
+
+    void start() {
+        startNanos = System.nanoTime();
+    }
+
+    void stop() {
+        endNanos = System.nanoTime();
+    }
+
+    void record(int status, long latencyNanos) {
+        latenciesNanos.add(latencyNanos);
+        synchronized (statuses) {
+            statuses.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    long count(int status) {
+        synchronized (statuses) {
+            AtomicLong count = statuses.get(status);
+            return count == null ? 0 : count.get();
+        }
+    }
+
+    String report() {
+        long[] sorted = latenciesNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        long requests = sorted.length;
+        long errors;
+        String codes;
+        synchronized (statuses) {
+            errors = statuses.entrySet().stream()
+                    .filter(e -> e.getKey() == 0 || e.getKey() >= 500)
+                    .mapToLong(e -> e.getValue().get())
+                    .sum();
+            codes = statuses.toString();
+        }
+        double seconds = Math.max(endNanos - startNanos, 1) / 1e9;
+        return String.format("%-22s %8d %10.1f %8.2f%% %9.1f %9.1f %9.1f  %s",
+                name, requests, requests / seconds, requests == 0 ? 0 : 100.0 * errors / requests,
+                percentileMillis(sorted, 50), percentileMillis(sorted, 99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6, codes);
+    }
+
+    static String header() {
+        return String.format("%-22s %8s %10s %9s %9s %9s %9s  %s",
+                "scenario", "requests", "req/s", "errors", "p50 ms", "p99 ms", "max ms", "status codes");
+    }
+
+    // Nearest-rank percentile
+    private static double percentileMillis(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+}
@@ -2,8 +2,10 @@ package com.ouroboros.pestadiumbookingbe;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class PeStadiumBookingBeApplication {
     public static void main(String[] args) {
         SpringApplication.run(PeStadiumBookingBeApplication.class, args);
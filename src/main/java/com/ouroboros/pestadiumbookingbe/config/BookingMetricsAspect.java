@@ -0,0 +1,90 @@
+package com.ouroboros.pestadiumbookingbe.config;
+
+import com.ouroboros.pestadiumbookingbe.exception.BadRequestException;
+import com.ouroboros.pestadiumbookingbe.exception.ConflictException;
+import com.ouroboros.pestadiumbookingbe.exception.ForbiddenException;
+import com.ouroboros.pestadiumbookingbe.exception.QuotaExceededException;
+import com.ouroboros.pestadiumbookingbe.exception.RequestTimeoutException;
+import com.ouroboros.pestadiumbookingbe.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionTimedOutException;
+
+/**
+ * Timers around booking operations and row locks. Runs outside the transaction advice, so an operation's time
+ * includes its commit and a timeout raised at commit is still counted as one.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class BookingMetricsAspect {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // bookings.operations{operation, outcome}: operation is the BookingService method
+    @Around("execution(public * com.ouroboros.pestadiumbookingbe.service.BookingService.*(..))")
+    public Object timeOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            outcome = outcomeOf(t);
+            throw t;
+        } finally {
+            sample.stop(Timer.builder("bookings.operations")
+                    .description("Booking operations, commit included")
+                    .tag("operation", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    // The whole locking query; under contention nearly all of it is spent waiting for the row lock. Profile rows are
+    // locked too (per-user quota), and both repositories have a findAndLockById, hence the repository tag
+    @Around("execution(* com.ouroboros.pestadiumbookingbe.repository.BookingRepository.findAndLock*(..))"
+            + " || execution(* com.ouroboros.pestadiumbookingbe.repository.ProfileRepository.findAndLock*(..))")
+    public Object timeLock(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            sample.stop(Timer.builder("bookings.lock.wait")
+                    .description("Queries taking pessimistic locks on bookings and profiles")
+                    .tag("repository", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("query", joinPoint.getSignature().getName())
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String outcomeOf(Throwable t) {
+        if (t instanceof ConflictException) {
+            return "conflict";
+        }
+        if (t instanceof QuotaExceededException) {
+            return "quota";
+        }
+        if (t instanceof ForbiddenException) {
+            return "forbidden";  // not the owner of the booking
+        }
+        if (t instanceof BadRequestException) {
+            return "invalid";
+        }
+        if (t instanceof RequestTimeoutException || t instanceof TransactionTimedOutException || t instanceof QueryTimeoutException) {
+            return "timeout";
+        }
+        if (t instanceof ServiceUnavailableException) {
+            return "unavailable";
+        }
+        return "error";
+    }
+}
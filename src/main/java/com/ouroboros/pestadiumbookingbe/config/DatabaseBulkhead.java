@@ -0,0 +1,150 @@
+package com.ouroboros.pestadiumbookingbe.config;
+
+import com.ouroboros.pestadiumbookingbe.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the number of requests working against the database. Requests run on virtual threads, so thousands can be
+ * in flight at once; without this they would all queue inside Hikari and run into the 2 second transaction timeouts.
+ * A request waits at most {@code acquire-timeout} for a permit and is turned away with 503 when the wait queue is
+ * full or the timeout passes.
+ * <p>
+ * Permits are the pool size minus {@code reserved-connections}, kept for work that takes connections outside the
+ * bulkhead: the NDJSON export (limited separately, see {@link #acquireExport}), the outbox dispatcher (its poller plus
+ * one shared connection for deliveries), the occupancy index rebuild, reference data reloads (one at a time) and the
+ * role lookups the auth filter makes on a cache miss. With the reserve sized to cover them, a request holding a permit
+ * does not wait on the pool.
+ */
+@Component
+public class DatabaseBulkhead implements HandlerInterceptor, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseBulkhead.class);
+    private static final String PERMIT_ATTRIBUTE = DatabaseBulkhead.class.getName() + ".PERMIT";
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolSize;
+    @Value("${database.bulkhead.reserved-connections:6}")
+    private int reservedConnections;
+    // Holds a connection for as long as the table takes to stream, so only this many run at once
+    @Value("${database.export.max-concurrent:1}")
+    private int maxExports;
+    @Value("${database.bulkhead.max-waiting:200}")
+    private int maxWaiting;
+    @Value("${database.bulkhead.acquire-timeout:500ms}")
+    private Duration acquireTimeout;
+
+    private int maxConcurrent;
+    private Semaphore permits;
+    private Semaphore exports;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong shed = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        maxConcurrent = poolSize - reservedConnections;
+        if (maxConcurrent < 1 || maxExports < 1 || maxExports > reservedConnections) {
+            throw new IllegalStateException("database.bulkhead.reserved-connections (" + reservedConnections + ") must leave at least one of "
+                    + poolSize + " connections to requests and cover database.export.max-concurrent (" + maxExports + ")");
+        }
+        permits = new Semaphore(maxConcurrent, true);
+        exports = new Semaphore(maxExports);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("database.bulkhead.available", this, DatabaseBulkhead::availablePermits)
+                .description("Permits not held by any request")
+                .register(registry);
+        Gauge.builder("database.bulkhead.waiting", this, DatabaseBulkhead::waitingRequests)
+                .description("Requests waiting for a permit")
+                .register(registry);
+        FunctionCounter.builder("database.bulkhead.shed", shed, AtomicLong::get)
+                .description("Requests turned away with 503")
+                .register(registry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;  // already holding one, e.g. on an error dispatch
+        }
+        acquire(request.getMethod() + " " + request.getRequestURI());
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            release();
+        }
+    }
+
+    /** For callers that take the permit themselves (see SlotAdmissionQueue); must be paired with {@link #release()}. */
+    public void acquire(String what) {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            throw overloaded(what, "wait queue full");
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw overloaded(what, "no permit within " + acquireTimeout.toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw overloaded(what, "interrupted");
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /** Exports do not wait: one more than the limit is turned away at once. Must be paired with {@link #releaseExport()}. */
+    public void acquireExport() {
+        if (!exports.tryAcquire()) {
+            throw overloaded("export", "export limit of " + maxExports + " reached");
+        }
+    }
+
+    public void releaseExport() {
+        exports.release();
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int waitingRequests() {
+        return waiting.get();
+    }
+
+    private ServiceUnavailableException overloaded(String what, String reason) {
+        shed.incrementAndGet();
+        logger.warn("Shedding {}: {}", what, reason);
+        return new ServiceUnavailableException("The service is busy. Please try again shortly.");
+    }
+}
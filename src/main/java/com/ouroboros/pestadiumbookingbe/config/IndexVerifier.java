@@ -0,0 +1,79 @@
+package com.ouroboros.pestadiumbookingbe.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Checks at startup that the indexes the booking queries rely on exist and are valid. A CREATE INDEX CONCURRENTLY
+ * that failed halfway leaves an invalid index behind, which the planner ignores, so validity is checked as well.
+ * Only PostgreSQL is checked; H2 gets its indexes from the entity mappings.
+ */
+@Component
+public class IndexVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexVerifier.class);
+
+    // Created by db/migration
+    static final List<String> EXPECTED_INDEXES = List.of(
+            "ux_bookings_active_slot",
+            "ix_bookings_active_user_day",
+            "ix_bookings_slot_status",
+            "ix_bookings_user_day_status",
+            "ix_bookings_created_at_id",
+            "ix_bookings_user_created_at_id",
+            "ix_bookings_sport_hall_id",
+            "ix_bookings_status",
+            "ix_profiles_student_id_trgm",
+            "ix_notification_outbox_due");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // off, warn or fail
+    @Value("${database.index-check:warn}")
+    private String mode;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        if ("off".equalsIgnoreCase(mode)) {
+            return;
+        }
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            logger.debug("Skipping index check on {}", database);
+            return;
+        }
+        List<String> valid = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_index i
+                JOIN pg_class c ON c.oid = i.indexrelid
+                JOIN pg_namespace n ON n.oid = c.relnamespace
+                WHERE n.nspname = current_schema() AND i.indisvalid
+                """, String.class);
+        check(new HashSet<>(valid));
+    }
+
+    void check(Set<String> validIndexes) {
+        Set<String> missing = new TreeSet<>(EXPECTED_INDEXES);
+        missing.removeAll(validIndexes);
+        if (missing.isEmpty()) {
+            logger.info("All {} expected indexes are present", EXPECTED_INDEXES.size());
+            return;
+        }
+        if ("fail".equalsIgnoreCase(mode)) {
+            throw new IllegalStateException("Missing or invalid indexes: " + missing + ". Run the migrations in db/migration.");
+        }
+        logger.warn("Missing or invalid indexes, queries on these columns will scan: {}", missing);
+    }
+}
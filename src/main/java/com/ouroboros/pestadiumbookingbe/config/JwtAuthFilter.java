@@ -1,12 +1,13 @@
 package com.ouroboros.pestadiumbookingbe.config;
 
 import com.ouroboros.pestadiumbookingbe.exception.ForbiddenException;
-import com.ouroboros.pestadiumbookingbe.model.Profile;
 import com.ouroboros.pestadiumbookingbe.model.ProfileType;
-import com.ouroboros.pestadiumbookingbe.repository.ProfileRepository;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.WeakKeyException;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,22 +25,52 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    // identity carried by a verified token, valid until the token expires
+    private record TokenIdentity(UUID userId, String email, String fullName, Instant expiresAt) {}
+
     @Value("${supabase.jwt-secret}")
     private String jwtSecret;
+    @Value("${security.token-cache.max-size:10000}")
+    private int tokenCacheMaxSize;
 
     @Autowired
-    private ProfileRepository profileRepository;
+    private ProfileRoleCache profileRoleCache;
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthFilter.class);
 
+    // JwtParser is immutable and thread-safe, build it (and the HMAC key) once
+    private JwtParser jwtParser;
+    // SHA-256 of the token -> identity, so a token's signature is only checked on first sight
+    private final Map<String, TokenIdentity> verifiedTokens = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initParser() {
+        try {
+            Key key = Keys.hmacShaKeyFor(jwtSecret.getBytes()); // Ensure the secret is properly encoded
+            jwtParser = Jwts.parserBuilder()
+                    .setSigningKey(key)
+                    .build();
+        } catch (WeakKeyException e) {
+            // keep the app up, every bearer token is rejected until the secret is fixed
+            logger.error("Configured JWT secret is not a valid HMAC key: {}", e.getMessage());
+        }
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws IOException, ServletException {
@@ -57,38 +88,24 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         String jwtToken = authHeader.substring("Bearer ".length());
         try {
-            Key key = Keys.hmacShaKeyFor(jwtSecret.getBytes()); // Ensure the secret is properly encoded
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(jwtToken)
-                    .getBody();
-
-            String userIdStr = claims.getSubject();
-            UUID userId = UUID.fromString(userIdStr);
-            String email = claims.get("email", String.class);
+            TokenIdentity identity = verify(jwtToken);
 
-            ProfileType profileTypeRole = profileRepository.findById(userId)
-                    .map(Profile::getType)
+            ProfileType profileTypeRole = profileRoleCache.roleOf(identity.userId())
                     .orElseThrow(() -> new ForbiddenException("User not found"));
             String role = profileTypeRole.name().toUpperCase();
 
-            Map<String, Object> userMetadata = claims.get("user_metadata", Map.class);
-            String fullName = userMetadata != null ? (String) userMetadata.get("full_name") : "Unknown User";
-
             List<GrantedAuthority> authorities = List.of(
                     new SimpleGrantedAuthority("ROLE_" + role)
             );
 
             UserPrincipal userPrincipal = new UserPrincipal(
-                    userId,
-                    email,
-                    fullName,
+                    identity.userId(),
+                    identity.email(),
+                    identity.fullName(),
                     authorities
             );
 
-            logger.info("Authenticated user: {}", userPrincipal.getUsername());
-            logger.info("User role: {}", role);
+            logger.debug("Authenticated user: {} with role: {}", userPrincipal.getUsername(), role);
 
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                     userPrincipal, null, authorities);
@@ -103,4 +120,51 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private TokenIdentity verify(String jwtToken) {
+        String tokenHash = sha256(jwtToken);
+        Instant now = Instant.now();
+        TokenIdentity cached = verifiedTokens.get(tokenHash);
+        if (cached != null) {
+            if (cached.expiresAt().isAfter(now)) {
+                return cached;
+            }
+            verifiedTokens.remove(tokenHash);
+        }
+
+        if (jwtParser == null) {
+            throw new IllegalStateException("JWT secret is not configured");
+        }
+        Claims claims = jwtParser.parseClaimsJws(jwtToken).getBody();
+
+        String userIdStr = claims.getSubject();
+        UUID userId = UUID.fromString(userIdStr);
+        String email = claims.get("email", String.class);
+
+        Map<String, Object> userMetadata = claims.get("user_metadata", Map.class);
+        String fullName = userMetadata != null ? (String) userMetadata.get("full_name") : "Unknown User";
+
+        // tokens without an expiry are verified every time rather than trusted forever
+        Date expiration = claims.getExpiration();
+        TokenIdentity identity = new TokenIdentity(userId, email, fullName, expiration != null ? expiration.toInstant() : now);
+        if (expiration != null) {
+            if (verifiedTokens.size() >= tokenCacheMaxSize) {
+                verifiedTokens.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+                if (verifiedTokens.size() >= tokenCacheMaxSize) {
+                    verifiedTokens.clear();
+                }
+            }
+            verifiedTokens.put(tokenHash, identity);
+        }
+        return identity;
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
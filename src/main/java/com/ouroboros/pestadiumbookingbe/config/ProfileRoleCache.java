@@ -0,0 +1,74 @@
+package com.ouroboros.pestadiumbookingbe.config;
+
+import com.ouroboros.pestadiumbookingbe.model.Profile;
+import com.ouroboros.pestadiumbookingbe.model.ProfileType;
+import com.ouroboros.pestadiumbookingbe.repository.ProfileRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Role of each profile, as read by {@link JwtAuthFilter} on every authenticated request. Entries are evicted
+ * when ProfileService changes or deletes a profile and otherwise expire after a short TTL, so a role changed
+ * directly in the database is still picked up.
+ */
+@Component
+public class ProfileRoleCache {
+
+    private record CachedRole(ProfileType type, Instant expiresAt) {}
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Value("${security.role-cache.ttl:60s}")
+    private Duration ttl;
+    @Value("${security.role-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<UUID, CachedRole> roles = new ConcurrentHashMap<>();
+
+    /** Empty when the profile does not exist; misses are not cached so a new sign-up is seen at once. */
+    public Optional<ProfileType> roleOf(UUID userId) {
+        Instant now = Instant.now();
+        CachedRole cached = roles.get(userId);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return Optional.of(cached.type());
+        }
+
+        Optional<ProfileType> type = profileRepository.findById(userId).map(Profile::getType);
+        if (type.isPresent()) {
+            if (roles.size() >= maxSize) {
+                roles.values().removeIf(role -> !role.expiresAt().isAfter(now));
+                if (roles.size() >= maxSize) {
+                    roles.clear();
+                }
+            }
+            roles.put(userId, new CachedRole(type.get(), now.plus(ttl)));
+        } else {
+            roles.remove(userId);
+        }
+        return type;
+    }
+
+    /** Evicts now and again once the surrounding transaction completes, so a concurrent reload cannot keep the old role. */
+    public void evict(UUID userId) {
+        roles.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    roles.remove(userId);
+                }
+            });
+        }
+    }
+}
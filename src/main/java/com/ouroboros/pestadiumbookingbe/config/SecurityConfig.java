@@ -38,7 +38,9 @@ public class SecurityConfig {
                             "/swagger-ui/**",
                             "/v3/api-docs/**",
                             "/swagger-resources/**",
-                            "/webjars/**"
+                            "/webjars/**",
+                            "/actuator/health",
+                            "/actuator/prometheus"  // served on the management port only
                     ).permitAll()
                     .anyRequest().authenticated()
             )
@@ -0,0 +1,25 @@
+package com.ouroboros.pestadiumbookingbe.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private DatabaseBulkhead databaseBulkhead;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(databaseBulkhead)
+                .addPathPatterns("/api/**")
+                // Served from the reference data cache, no connection needed
+                .excludePathPatterns("/api/sports/**", "/api/sport-halls/**", "/api/time-slots/**")
+                // Streams for minutes on an async thread; limited by DatabaseBulkhead.acquireExport instead
+                .excludePathPatterns("/api/bookings/export-bookings")
+                // Takes its permit once admitted by SlotAdmissionQueue, not while waiting in a lane
+                .excludePathPatterns("/api/bookings/create-booking");
+    }
+}
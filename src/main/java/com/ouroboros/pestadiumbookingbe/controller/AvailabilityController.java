@@ -0,0 +1,32 @@
+package com.ouroboros.pestadiumbookingbe.controller;
+
+import com.ouroboros.pestadiumbookingbe.dto.AvailabilityMatrix;
+import com.ouroboros.pestadiumbookingbe.service.AvailabilityService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/availability")
+public class AvailabilityController {
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @GetMapping
+    public ResponseEntity<AvailabilityMatrix> getAvailability(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) UUID sportHallId) {
+        AvailabilityMatrix matrix = availabilityService.getAvailability(from, to, Optional.ofNullable(sportHallId));
+        return ResponseEntity.ok(matrix);
+    }
+}
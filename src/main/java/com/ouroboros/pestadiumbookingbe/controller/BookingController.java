@@ -1,7 +1,13 @@
 package com.ouroboros.pestadiumbookingbe.controller;
 
+import com.ouroboros.pestadiumbookingbe.config.DatabaseBulkhead;
 import com.ouroboros.pestadiumbookingbe.config.UserPrincipal;
+import com.ouroboros.pestadiumbookingbe.dto.BookingListItem;
+import com.ouroboros.pestadiumbookingbe.dto.BookingPage;
 import com.ouroboros.pestadiumbookingbe.dto.BookingRequest;
+import com.ouroboros.pestadiumbookingbe.dto.BulkBookingResult;
+import com.ouroboros.pestadiumbookingbe.dto.RecurringBookingRequest;
+import com.ouroboros.pestadiumbookingbe.dto.RecurringBookingResult;
 import com.ouroboros.pestadiumbookingbe.exception.ForbiddenException;
 import com.ouroboros.pestadiumbookingbe.service.BookingService;
 import com.ouroboros.pestadiumbookingbe.model.Booking;
@@ -9,14 +15,19 @@ import com.ouroboros.pestadiumbookingbe.model.SportHallLocation;
 import com.ouroboros.pestadiumbookingbe.model.ProfileType;
 import com.ouroboros.pestadiumbookingbe.model.Status;
 import com.ouroboros.pestadiumbookingbe.service.SearchService;
+import com.ouroboros.pestadiumbookingbe.service.SlotAdmissionQueue;
+import com.ouroboros.pestadiumbookingbe.service.SlotOccupancyIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @RestController
@@ -27,27 +38,59 @@ public class BookingController {
     private BookingService bookingService;
     @Autowired
     private SearchService searchService;
+    @Autowired
+    private SlotAdmissionQueue slotAdmissionQueue;
+    @Autowired
+    private DatabaseBulkhead databaseBulkhead;
 
-
-    private boolean hasAdminRole(UserPrincipal principal) {
-        return principal.getAuthorities().stream()
-                .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
+    // ?fields=id,bookingDate,status keeps only those properties of each item; without it items are returned whole
+    private static BookingPage selectFields(BookingPage page, String fields) {
+        if (fields == null || fields.isBlank()) {
+            return page;
+        }
+        Set<String> selected = BookingListItem.parseFields(fields);
+        return new BookingPage(page.getItems().stream().map(item -> item.only(selected)).toList(), page.getNextCursor());
     }
 
     @PreAuthorize("hasRole('ADMIN') or principal.userId == #bookingRequest.userId")
     @PostMapping("/create-booking")
     public ResponseEntity<Booking> createBooking(@RequestBody BookingRequest bookingRequest) {
-        Booking booking = bookingService.createBooking(
+        SlotOccupancyIndex.SlotKey slot = new SlotOccupancyIndex.SlotKey(
+            bookingRequest.getSportHallId(), bookingRequest.getDate(), bookingRequest.getTimeSlotId());
+        // Requests for the same cell are lined up in memory; the transaction commits before the next one is let in
+        Booking booking = slotAdmissionQueue.admit(slot, () -> bookingService.createBooking(
             bookingRequest.getUserId(),
             bookingRequest.getSportHallId(),
             bookingRequest.getSportId(),
             bookingRequest.getDate(),
             bookingRequest.getTimeSlotId(),
             bookingRequest.getPurpose()
-        );
+        ));
         return ResponseEntity.ok(booking);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/admission-stats")
+    public ResponseEntity<SlotAdmissionQueue.Stats> getAdmissionStats() {
+        return ResponseEntity.ok(slotAdmissionQueue.stats());
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or principal.userId == #recurringBookingRequest.userId")
+    @PostMapping("/create-recurring-booking")
+    public ResponseEntity<RecurringBookingResult> createRecurringBooking(@RequestBody RecurringBookingRequest recurringBookingRequest) {
+        RecurringBookingResult result = bookingService.createRecurringBooking(
+            recurringBookingRequest.getUserId(),
+            recurringBookingRequest.getSportHallId(),
+            recurringBookingRequest.getSportId(),
+            recurringBookingRequest.getTimeSlotId(),
+            recurringBookingRequest.getStartDate(),
+            recurringBookingRequest.getEndDate(),
+            recurringBookingRequest.getIntervalWeeks(),
+            recurringBookingRequest.getPurpose()
+        );
+        return ResponseEntity.ok(result);
+    }
+
     @PostMapping("/cancel-booking")
     public ResponseEntity<Booking> cancelBooking(
             @RequestParam UUID bookingId,
@@ -58,11 +101,7 @@ public class BookingController {
             throw new ForbiddenException("Inconsistent user id.");
         }
 
-        Booking booking = searchService.getBookingById(bookingId);
-        if (!booking.getUserId().equals(principal.getUserId()) && !hasAdminRole(principal)) {
-            throw new ForbiddenException("You can only cancel your own bookings.");
-        }
-
+        // Ownership is checked by the service on the locked row, so the booking is read only once
         Booking updated = bookingService.cancelBooking(bookingId, canceledBy);
         return ResponseEntity.ok(updated);
     }
@@ -74,6 +113,21 @@ public class BookingController {
         return ResponseEntity.ok(booking);
     }
 
+    // One transaction and one round trip for a list of ids; the result says per id whether it was confirmed
+    @PreAuthorize("hasRole('ADMIN') and principal.userId == #confirmedBy")
+    @PostMapping("/bulk-confirm")
+    public ResponseEntity<BulkBookingResult> bulkConfirmBookings(@RequestParam UUID confirmedBy, @RequestBody List<UUID> bookingIds) {
+        BulkBookingResult result = bookingService.bulkConfirmBookings(bookingIds, confirmedBy);
+        return ResponseEntity.ok(result);
+    }
+
+    @PreAuthorize("hasRole('ADMIN') and principal.userId == #canceledBy")
+    @PostMapping("/bulk-cancel")
+    public ResponseEntity<BulkBookingResult> bulkCancelBookings(@RequestParam UUID canceledBy, @RequestBody List<UUID> bookingIds) {
+        BulkBookingResult result = bookingService.bulkCancelBookings(bookingIds, canceledBy);
+        return ResponseEntity.ok(result);
+    }
+
     @PostMapping("/modify-booking")
     public ResponseEntity<Booking> modifyBooking(
             @RequestParam UUID bookingId,
@@ -85,11 +139,6 @@ public class BookingController {
             throw new ForbiddenException("Inconsistent user id.");
         }
 
-        Booking booking = searchService.getBookingById(bookingId);
-        if (!booking.getUserId().equals(principal.getUserId()) && !hasAdminRole(principal)) {
-            throw new ForbiddenException("You can only modify your own bookings.");
-        }
-
         Booking updated = bookingService.modifyBooking(
             bookingId,
             modifiedByUserId,
@@ -113,11 +162,6 @@ public class BookingController {
             throw new ForbiddenException("Inconsistent user id.");
         }
 
-        Booking booking = searchService.getBookingById(bookingId);
-        if (!booking.getUserId().equals(principal.getUserId()) && !hasAdminRole(principal)) {
-            throw new ForbiddenException("You can only delete your own bookings.");
-        }
-
         bookingService.deleteBooking(bookingId, deletedBy);
         return ResponseEntity.noContent().build();
     }
@@ -160,4 +204,61 @@ public class BookingController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    @GetMapping("/get-bookings-page")
+    public ResponseEntity<BookingPage> getBookingsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        BookingPage page = searchService.getBookingsPage(Optional.ofNullable(cursor), Optional.ofNullable(size));
+        return ResponseEntity.ok(selectFields(page, fields));
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or principal.userId == #userId")
+    @GetMapping("/get-bookings-by-user-page/{userId}")
+    public ResponseEntity<BookingPage> getBookingsByUserIdPage(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        BookingPage page = searchService.getBookingsByUserIdPage(userId, Optional.ofNullable(cursor), Optional.ofNullable(size));
+        return ResponseEntity.ok(selectFields(page, fields));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/filter-bookings-page")
+    public ResponseEntity<BookingPage> filterBookingsPage(
+            @RequestParam(required = false) String studentId,
+            @RequestParam(required = false) SportHallLocation location,
+            @RequestParam(required = false) ProfileType profileType,
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        BookingPage page = searchService.filterBookingsPage(
+            Optional.ofNullable(studentId),
+            Optional.ofNullable(location),
+            Optional.ofNullable(profileType),
+            Optional.ofNullable(status),
+            Optional.ofNullable(cursor),
+            Optional.ofNullable(size)
+        );
+        return ResponseEntity.ok(selectFields(page, fields));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/export-bookings")
+    public ResponseEntity<StreamingResponseBody> exportBookings() {
+        databaseBulkhead.acquireExport();
+        StreamingResponseBody body = out -> {
+            try {
+                searchService.exportBookings(out);
+            } finally {
+                databaseBulkhead.releaseExport();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 }
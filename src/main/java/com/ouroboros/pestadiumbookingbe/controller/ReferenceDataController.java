@@ -0,0 +1,25 @@
+package com.ouroboros.pestadiumbookingbe.controller;
+
+import com.ouroboros.pestadiumbookingbe.service.ReferenceDataCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/reference-data")
+public class ReferenceDataController {
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    // for sport halls, sports or time slots edited directly in the database
+    @PostMapping("/refresh")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> refresh() {
+        referenceDataCache.refresh();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.ouroboros.pestadiumbookingbe.controller;
+
+import com.ouroboros.pestadiumbookingbe.service.ReferenceDataCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Conditional GETs for the sport, sport hall and time slot endpoints. Responses carry the snapshot's strong ETag
+ * and Last-Modified; Spring answers a request whose If-None-Match (or If-Modified-Since) still matches with a 304
+ * and no body, so an unchanged list is neither serialized nor downloaded again.
+ */
+@Component
+class ReferenceDataResponses {
+
+    // 0 lets browsers and the CDN store the list but revalidate it on every use, which costs a 304 while nothing changed
+    @Value("${reference-data.http.max-age:0s}")
+    private Duration maxAge;
+
+    <B> ResponseEntity<B> ok(ReferenceDataCache.Snapshot<?> snapshot, B body) {
+        // public: the requests carry an Authorization header, shared caches would not store the response otherwise
+        CacheControl cacheControl = maxAge.isZero() ? CacheControl.noCache() : CacheControl.maxAge(maxAge).mustRevalidate();
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .lastModified(snapshot.lastModified())
+                .cacheControl(cacheControl.cachePublic())
+                .body(body);
+    }
+}
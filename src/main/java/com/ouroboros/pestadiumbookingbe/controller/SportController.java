@@ -1,5 +1,6 @@
 package com.ouroboros.pestadiumbookingbe.controller;
 
+import com.ouroboros.pestadiumbookingbe.service.ReferenceDataCache;
 import com.ouroboros.pestadiumbookingbe.service.StadiumInfoService;
 import com.ouroboros.pestadiumbookingbe.model.Sport;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,10 +16,12 @@ import java.util.List;
 public class SportController {
     @Autowired
     private StadiumInfoService stadiumInfoService;
+    @Autowired
+    private ReferenceDataResponses referenceDataResponses;
 
     @GetMapping("/get-sports")
     public ResponseEntity<List<Sport>> getAllSports() {
-        List<Sport> sports = stadiumInfoService.getAllSports();
-        return ResponseEntity.ok(sports);
+        ReferenceDataCache.Snapshot<Sport> sports = stadiumInfoService.getSportSnapshot();
+        return referenceDataResponses.ok(sports, sports.all());
     }
 }
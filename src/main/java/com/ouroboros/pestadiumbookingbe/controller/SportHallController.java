@@ -1,6 +1,7 @@
 package com.ouroboros.pestadiumbookingbe.controller;
 
 import com.ouroboros.pestadiumbookingbe.model.SportHall;
+import com.ouroboros.pestadiumbookingbe.service.ReferenceDataCache;
 import com.ouroboros.pestadiumbookingbe.service.SearchService;
 import com.ouroboros.pestadiumbookingbe.service.StadiumInfoService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,11 +22,13 @@ public class SportHallController {
     private StadiumInfoService stadiumInfoService;
     @Autowired
     private SearchService searchService;
+    @Autowired
+    private ReferenceDataResponses referenceDataResponses;
 
     @GetMapping("/get-sport-halls")
     public ResponseEntity<List<SportHall>> getAllSportHalls() {
-        List<SportHall> halls = stadiumInfoService.getAllSportHalls();
-        return ResponseEntity.ok(halls);
+        ReferenceDataCache.Snapshot<SportHall> halls = stadiumInfoService.getSportHallSnapshot();
+        return referenceDataResponses.ok(halls, halls.all());
     }
 
     @GetMapping("/get-sport-hall/{id}")
@@ -1,5 +1,6 @@
 package com.ouroboros.pestadiumbookingbe.controller;
 
+import com.ouroboros.pestadiumbookingbe.service.ReferenceDataCache;
 import com.ouroboros.pestadiumbookingbe.service.SearchService;
 import com.ouroboros.pestadiumbookingbe.service.StadiumInfoService;
 import com.ouroboros.pestadiumbookingbe.model.TimeSlot;
@@ -21,11 +22,13 @@ public class TimeSlotController {
     private StadiumInfoService stadiumInfoService;
     @Autowired
     private SearchService searchService;
+    @Autowired
+    private ReferenceDataResponses referenceDataResponses;
 
     @GetMapping("/get-time-slots")
     public ResponseEntity<List<TimeSlot>> getAllTimeSlots() {
-        List<TimeSlot> slots = stadiumInfoService.getAllTimeSlots();
-        return ResponseEntity.ok(slots);
+        ReferenceDataCache.Snapshot<TimeSlot> slots = stadiumInfoService.getTimeSlotSnapshot();
+        return referenceDataResponses.ok(slots, slots.all());
     }
 
     @GetMapping("/get-time-slot/{id}")
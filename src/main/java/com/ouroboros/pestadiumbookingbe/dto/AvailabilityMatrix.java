@@ -0,0 +1,54 @@
+package com.ouroboros.pestadiumbookingbe.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public class AvailabilityMatrix {
+    private LocalDate from;
+    private LocalDate to;
+    // column order of every HallAvailability row, sorted by start time
+    private List<UUID> timeSlotIds;
+    private List<HallAvailability> sportHalls;
+
+    public AvailabilityMatrix() {}
+
+    public AvailabilityMatrix(LocalDate from, LocalDate to, List<UUID> timeSlotIds, List<HallAvailability> sportHalls) {
+        this.from = from;
+        this.to = to;
+        this.timeSlotIds = timeSlotIds;
+        this.sportHalls = sportHalls;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public List<UUID> getTimeSlotIds() {
+        return timeSlotIds;
+    }
+
+    public void setTimeSlotIds(List<UUID> timeSlotIds) {
+        this.timeSlotIds = timeSlotIds;
+    }
+
+    public List<HallAvailability> getSportHalls() {
+        return sportHalls;
+    }
+
+    public void setSportHalls(List<HallAvailability> sportHalls) {
+        this.sportHalls = sportHalls;
+    }
+}
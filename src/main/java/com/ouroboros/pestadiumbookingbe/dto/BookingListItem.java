@@ -0,0 +1,53 @@
+package com.ouroboros.pestadiumbookingbe.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.ouroboros.pestadiumbookingbe.exception.BadRequestException;
+import com.ouroboros.pestadiumbookingbe.model.Status;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+// One row of the booking list pages, selected straight into this record: the columns a list shows, without purpose,
+// cost, special requirements and the cancellation columns. Null properties are left out, which is how ?fields= trims it
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookingListItem(UUID id,
+                              UUID userId,
+                              UUID sportHallId,
+                              UUID sportId,
+                              LocalDate bookingDate,
+                              UUID timeSlotId,
+                              Status status,
+                              OffsetDateTime createdAt) {
+
+    public static final List<String> FIELDS = List.of(
+            "id", "userId", "sportHallId", "sportId", "bookingDate", "timeSlotId", "status", "createdAt");
+
+    // Comma separated property names, e.g. "id,bookingDate,status"
+    public static Set<String> parseFields(String fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!FIELDS.contains(name)) {
+                throw new BadRequestException("Unknown field: " + name + ". Allowed fields are " + String.join(", ", FIELDS) + ".");
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    public BookingListItem only(Set<String> fields) {
+        return new BookingListItem(
+                fields.contains("id") ? id : null,
+                fields.contains("userId") ? userId : null,
+                fields.contains("sportHallId") ? sportHallId : null,
+                fields.contains("sportId") ? sportId : null,
+                fields.contains("bookingDate") ? bookingDate : null,
+                fields.contains("timeSlotId") ? timeSlotId : null,
+                fields.contains("status") ? status : null,
+                fields.contains("createdAt") ? createdAt : null);
+    }
+}
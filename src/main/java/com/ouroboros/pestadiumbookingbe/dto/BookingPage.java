@@ -0,0 +1,32 @@
+package com.ouroboros.pestadiumbookingbe.dto;
+
+import java.util.List;
+
+public class BookingPage {
+    private List<BookingListItem> items;
+    // null on the last page
+    private String nextCursor;
+
+    public BookingPage() {}
+
+    public BookingPage(List<BookingListItem> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<BookingListItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<BookingListItem> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -2,8 +2,10 @@ package com.ouroboros.pestadiumbookingbe.dto;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.UUID;
 
 public class BookingSummary {
+    private UUID bookingId;
     private String senderEmailAddress;
     private LocalDate bookingDate;
     private LocalTime startTime;
@@ -11,6 +13,8 @@ public class BookingSummary {
     private String sportHallName;
     private String purpose;
     private String canceledByEmailAddress;
+    // iCalendar SEQUENCE of the booking's event, see BookingMapper
+    private int sequence;
 
     public BookingSummary() {}
 
@@ -79,5 +83,20 @@ public class BookingSummary {
     public void setCanceledByEmailAddress(String canceledByEmailAddress) {
         this.canceledByEmailAddress = canceledByEmailAddress;
     }
-}
 
+    public UUID getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(UUID bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(int sequence) {
+        this.sequence = sequence;
+    }
+}
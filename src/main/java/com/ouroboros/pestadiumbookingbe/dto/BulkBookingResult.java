@@ -0,0 +1,103 @@
+package com.ouroboros.pestadiumbookingbe.dto;
+
+import com.ouroboros.pestadiumbookingbe.model.Status;
+
+import java.util.List;
+import java.util.UUID;
+
+public class BulkBookingResult {
+    // One entry per requested id, in request order
+    private List<Item> results;
+    private int succeeded;
+    private int failed;
+
+    public BulkBookingResult() {}
+
+    public BulkBookingResult(List<Item> results) {
+        this.results = results;
+        this.succeeded = (int) results.stream().filter(Item::isSuccess).count();
+        this.failed = results.size() - succeeded;
+    }
+
+    public List<Item> getResults() {
+        return results;
+    }
+
+    public void setResults(List<Item> results) {
+        this.results = results;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public static class Item {
+        private UUID bookingId;
+        private boolean success;
+        // Status after the operation, or the unchanged status when it was refused; null for unknown ids
+        private Status status;
+        // null on success
+        private String error;
+
+        public Item() {}
+
+        public Item(UUID bookingId, boolean success, Status status, String error) {
+            this.bookingId = bookingId;
+            this.success = success;
+            this.status = status;
+            this.error = error;
+        }
+
+        public static Item ok(UUID bookingId, Status status) {
+            return new Item(bookingId, true, status, null);
+        }
+
+        public static Item failed(UUID bookingId, Status status, String error) {
+            return new Item(bookingId, false, status, error);
+        }
+
+        public UUID getBookingId() {
+            return bookingId;
+        }
+
+        public void setBookingId(UUID bookingId) {
+            this.bookingId = bookingId;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public void setSuccess(boolean success) {
+            this.success = success;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.ouroboros.pestadiumbookingbe.dto;
+
+import java.util.UUID;
+
+public class HallAvailability {
+    private UUID sportHallId;
+    // occupied[day][slot] is 1 when the cell holds a pending/confirmed booking
+    private int[][] occupied;
+
+    public HallAvailability() {}
+
+    public HallAvailability(UUID sportHallId, int[][] occupied) {
+        this.sportHallId = sportHallId;
+        this.occupied = occupied;
+    }
+
+    public UUID getSportHallId() {
+        return sportHallId;
+    }
+
+    public void setSportHallId(UUID sportHallId) {
+        this.sportHallId = sportHallId;
+    }
+
+    public int[][] getOccupied() {
+        return occupied;
+    }
+
+    public void setOccupied(int[][] occupied) {
+        this.occupied = occupied;
+    }
+}
@@ -0,0 +1,81 @@
+package com.ouroboros.pestadiumbookingbe.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+// The same hall and time slot every intervalWeeks weeks, from startDate up to and including endDate
+public class RecurringBookingRequest {
+    private UUID userId;
+    private UUID sportHallId;
+    private UUID sportId;
+    private UUID timeSlotId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer intervalWeeks = 1;
+    private String purpose;
+
+    // Getters and setters
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public UUID getSportHallId() {
+        return sportHallId;
+    }
+
+    public void setSportHallId(UUID sportHallId) {
+        this.sportHallId = sportHallId;
+    }
+
+    public UUID getSportId() {
+        return sportId;
+    }
+
+    public void setSportId(UUID sportId) {
+        this.sportId = sportId;
+    }
+
+    public UUID getTimeSlotId() {
+        return timeSlotId;
+    }
+
+    public void setTimeSlotId(UUID timeSlotId) {
+        this.timeSlotId = timeSlotId;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public Integer getIntervalWeeks() {
+        return intervalWeeks;
+    }
+
+    public void setIntervalWeeks(Integer intervalWeeks) {
+        this.intervalWeeks = intervalWeeks;
+    }
+
+    public String getPurpose() {
+        return purpose;
+    }
+
+    public void setPurpose(String purpose) {
+        this.purpose = purpose;
+    }
+}
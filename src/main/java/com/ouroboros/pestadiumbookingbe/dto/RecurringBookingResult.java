@@ -0,0 +1,102 @@
+package com.ouroboros.pestadiumbookingbe.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public class RecurringBookingResult {
+    // One entry per occurrence, in date order
+    private List<Occurrence> occurrences;
+    private int created;
+    private int conflicted;
+
+    public RecurringBookingResult() {}
+
+    public RecurringBookingResult(List<Occurrence> occurrences) {
+        this.occurrences = occurrences;
+        this.created = (int) occurrences.stream().filter(Occurrence::isCreated).count();
+        this.conflicted = occurrences.size() - created;
+    }
+
+    public List<Occurrence> getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(List<Occurrence> occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getConflicted() {
+        return conflicted;
+    }
+
+    public void setConflicted(int conflicted) {
+        this.conflicted = conflicted;
+    }
+
+    public static class Occurrence {
+        private LocalDate date;
+        private boolean created;
+        // null when the date was not booked
+        private UUID bookingId;
+        // null when the booking was created
+        private String error;
+
+        public Occurrence() {}
+
+        public Occurrence(LocalDate date, boolean created, UUID bookingId, String error) {
+            this.date = date;
+            this.created = created;
+            this.bookingId = bookingId;
+            this.error = error;
+        }
+
+        public static Occurrence created(LocalDate date, UUID bookingId) {
+            return new Occurrence(date, true, bookingId, null);
+        }
+
+        public static Occurrence conflicted(LocalDate date, String error) {
+            return new Occurrence(date, false, null, error);
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public void setDate(LocalDate date) {
+            this.date = date;
+        }
+
+        public boolean isCreated() {
+            return created;
+        }
+
+        public void setCreated(boolean created) {
+            this.created = created;
+        }
+
+        public UUID getBookingId() {
+            return bookingId;
+        }
+
+        public void setBookingId(UUID bookingId) {
+            this.bookingId = bookingId;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.ouroboros.pestadiumbookingbe.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// The one booking per day rule; still a 403, kept apart from ownership refusals in the metrics
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class QuotaExceededException extends ForbiddenException {
+    public QuotaExceededException(String message) {
+        super(message);
+    }
+}
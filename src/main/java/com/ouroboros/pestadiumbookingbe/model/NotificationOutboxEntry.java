@@ -0,0 +1,79 @@
+package com.ouroboros.pestadiumbookingbe.model;
+
+import com.ouroboros.pestadiumbookingbe.notifier.BookingNotificationType;
+import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "notification_outbox")
+public class NotificationOutboxEntry {
+    @Id
+    // Same id strategy as Booking, entries are written in batches with the bookings they belong to
+    @UuidGenerator(style = UuidGenerator.Style.TIME)
+    @Column(columnDefinition = "uuid", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "booking_id", nullable = false, updatable = false)
+    private UUID bookingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private BookingNotificationType type;
+
+    // JSON snapshot of the booking as committed, a deleted booking can still be announced
+    @Column(columnDefinition = "text", nullable = false, updatable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status = OutboxStatus.pending;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    // also serves as the claim lease while an attempt is in flight
+    @Column(name = "next_attempt_at", columnDefinition = "timestamp with time zone", nullable = false)
+    private OffsetDateTime nextAttemptAt = OffsetDateTime.now();
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+
+    @Column(name = "created_at", columnDefinition = "timestamp with time zone", nullable = false, updatable = false)
+    private OffsetDateTime createdAt = OffsetDateTime.now();
+
+    @Column(name = "sent_at", columnDefinition = "timestamp with time zone")
+    private OffsetDateTime sentAt;
+
+    // Getters and setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public UUID getBookingId() { return bookingId; }
+    public void setBookingId(UUID bookingId) { this.bookingId = bookingId; }
+
+    public BookingNotificationType getType() { return type; }
+    public void setType(BookingNotificationType type) { this.type = type; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public OutboxStatus getStatus() { return status; }
+    public void setStatus(OutboxStatus status) { this.status = status; }
+
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+
+    public OffsetDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(OffsetDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
+
+    public OffsetDateTime getSentAt() { return sentAt; }
+    public void setSentAt(OffsetDateTime sentAt) { this.sentAt = sentAt; }
+}
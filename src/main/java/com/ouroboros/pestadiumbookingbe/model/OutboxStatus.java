@@ -0,0 +1,7 @@
+package com.ouroboros.pestadiumbookingbe.model;
+
+public enum OutboxStatus {
+    pending,
+    sent,
+    failed
+}
@@ -1,10 +1,12 @@
 package com.ouroboros.pestadiumbookingbe.model;
 
+import com.ouroboros.pestadiumbookingbe.service.ReferenceDataChangeListener;
 import jakarta.persistence.*;
 import java.util.UUID;
 import java.time.Instant;
 
 @Entity
+@EntityListeners(ReferenceDataChangeListener.class)
 @Table(name = "sports")
 public class Sport {
     @Id
@@ -32,6 +34,11 @@ public class Sport {
         createdAt = Instant.now();
     }
 
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = Instant.now();
+    }
+
     // Getters and setters
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
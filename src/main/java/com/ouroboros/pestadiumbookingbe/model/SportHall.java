@@ -1,11 +1,13 @@
 package com.ouroboros.pestadiumbookingbe.model;
 
+import com.ouroboros.pestadiumbookingbe.service.ReferenceDataChangeListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(ReferenceDataChangeListener.class)
 @Table(name = "sport_halls")
 public class SportHall {
 
@@ -1,11 +1,13 @@
 package com.ouroboros.pestadiumbookingbe.model;
 
+import com.ouroboros.pestadiumbookingbe.service.ReferenceDataChangeListener;
 import jakarta.persistence.*;
 import java.time.Instant;
 import java.time.LocalTime;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(ReferenceDataChangeListener.class)
 @Table(name = "time_slots")
 public class TimeSlot {
 
@@ -33,6 +35,11 @@ public class TimeSlot {
         updatedAt = Instant.now();
     }
 
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = Instant.now();
+    }
+
     // Getters and setters
     public UUID getId() {
         return id;
@@ -4,22 +4,27 @@ import com.ouroboros.pestadiumbookingbe.dto.BookingSummary;
 import com.ouroboros.pestadiumbookingbe.model.Booking;
 import com.ouroboros.pestadiumbookingbe.util.BookingMapper;
 import com.ouroboros.pestadiumbookingbe.util.EmailSender;
+import com.ouroboros.pestadiumbookingbe.util.IcsFileGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 public class BookingCancellationHandler implements BookingNotificationHandler {
     @Autowired
     private BookingMapper bookingMapper;
     @Autowired
     private EmailSender emailSender;
+    @Autowired
+    private IcsFileGenerator icsFileGenerator;
 
     private static final Logger logger = LoggerFactory.getLogger(BookingCancellationHandler.class);
 
     @Override
-    public void notify(Booking booking) {
+    public CompletableFuture<Void> notify(Booking booking) {
         logger.info("Sending booking cancellation email for booking: {}", booking.getId());
 
         try {
@@ -32,9 +37,11 @@ public class BookingCancellationHandler implements BookingNotificationHandler {
                     bookingSummary.getStartTime(),
                     bookingSummary.getEndTime(),
                     bookingSummary.getCanceledByEmailAddress());
-            emailSender.sendEmail(bookingSummary.getSenderEmailAddress(), subject, text);
+            byte[] icsBytes = icsFileGenerator.generateCancellationIcsStream(bookingSummary).toByteArray();
+            return emailSender.sendEmailAsync(bookingSummary.getSenderEmailAddress(), subject, text, icsBytes);
         } catch (Exception e) {
             logger.error("Failed to send booking cancellation email for booking: {}", booking.getId(), e);
+            throw new RuntimeException("Failed to send booking cancellation email", e);  // retried from the outbox
         }
     }
 
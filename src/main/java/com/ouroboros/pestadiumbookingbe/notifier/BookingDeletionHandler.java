@@ -10,6 +10,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 public class BookingDeletionHandler implements BookingNotificationHandler {
     @Autowired
@@ -22,7 +24,7 @@ public class BookingDeletionHandler implements BookingNotificationHandler {
     private static final Logger logger = LoggerFactory.getLogger(BookingDeletionHandler.class);
 
     @Override
-    public void notify(Booking booking) {
+    public CompletableFuture<Void> notify(Booking booking) {
         logger.info("Sending booking deletion email for booking: {}", booking.getId());
 
         try {
@@ -34,10 +36,11 @@ public class BookingDeletionHandler implements BookingNotificationHandler {
                     bookingSummary.getBookingDate(),
                     bookingSummary.getStartTime(),
                     bookingSummary.getEndTime());
-            byte[] icsBytes = icsFileGenerator.generateIcsStream(bookingSummary).toByteArray();
-            emailSender.sendEmailWithIcsAttachment(bookingSummary.getSenderEmailAddress(), subject, text, icsBytes);
+            byte[] icsBytes = icsFileGenerator.generateCancellationIcsStream(bookingSummary).toByteArray();
+            return emailSender.sendEmailAsync(bookingSummary.getSenderEmailAddress(), subject, text, icsBytes);
         } catch (Exception e) {
             logger.error("Failed to send booking deletion email for booking: {}", booking.getId(), e);
+            throw new RuntimeException("Failed to send booking deletion email", e);  // retried from the outbox
         }
     }
 
@@ -10,6 +10,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 public class BookingModificationHandler implements BookingNotificationHandler {
     @Autowired
@@ -22,7 +24,7 @@ public class BookingModificationHandler implements BookingNotificationHandler {
     private static final Logger logger = LoggerFactory.getLogger(BookingModificationHandler.class);
 
     @Override
-    public void notify(Booking booking) {
+    public CompletableFuture<Void> notify(Booking booking) {
         logger.info("Sending booking modification email for booking: {}", booking.getId());
 
         try {
@@ -35,9 +37,10 @@ public class BookingModificationHandler implements BookingNotificationHandler {
                     bookingSummary.getStartTime(),
                     bookingSummary.getEndTime());
             byte[] icsBytes = icsFileGenerator.generateIcsStream(bookingSummary).toByteArray();
-            emailSender.sendEmailWithIcsAttachment(bookingSummary.getSenderEmailAddress(), subject, text, icsBytes);
+            return emailSender.sendEmailAsync(bookingSummary.getSenderEmailAddress(), subject, text, icsBytes);
         } catch (Exception e) {
             logger.error("Failed to send booking modification email for booking: {}", booking.getId(), e);
+            throw new RuntimeException("Failed to send booking modification email", e);  // retried from the outbox
         }
     }
 
@@ -2,7 +2,10 @@ package com.ouroboros.pestadiumbookingbe.notifier;
 
 import com.ouroboros.pestadiumbookingbe.model.Booking;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface BookingNotificationHandler {
-    void notify(Booking booking);
+    // Completes once the notification has been handed to the mail provider
+    CompletableFuture<Void> notify(Booking booking);
     BookingNotificationType getType();
 }
\ No newline at end of file
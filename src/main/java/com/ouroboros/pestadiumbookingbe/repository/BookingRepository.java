@@ -1,27 +1,135 @@
 package com.ouroboros.pestadiumbookingbe.repository;
 
+import com.ouroboros.pestadiumbookingbe.dto.BookingListItem;
 import com.ouroboros.pestadiumbookingbe.model.Booking;
 import com.ouroboros.pestadiumbookingbe.model.Status;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.query.Param;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    Optional<Booking> findById(UUID id);
-
+// Keyed by UUID so findById goes through EntityManager.find: a booking already loaded in the transaction is not
+// queried again
+public interface BookingRepository extends JpaRepository<Booking, UUID>, JpaSpecificationExecutor<Booking> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<Booking> findAndLockBySportHallIdAndBookingDateAndTimeSlotIdAndStatus(UUID sportHallId, LocalDate bookingDate, UUID timeSlotId, Status status);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<Booking> findAndLockById(UUID id);
 
+    // Both active statuses in one count, served by ix_bookings_user_day_status. Locking existing rows would not stop a
+    // concurrent insert for the same day, so this takes no lock; the conditional insert rechecks the quota itself.
+    long countByUserIdAndBookingDateAndStatusIn(UUID userId, LocalDate date, Collection<Status> statuses);
+
+    // Confirms an occupancy index hit; served by ux_bookings_active_slot, unlocked for the same reason as the count
+    boolean existsBySportHallIdAndBookingDateAndTimeSlotIdAndStatusIn(UUID sportHallId, LocalDate bookingDate, UUID timeSlotId, Collection<Status> statuses);
+
+    // Rows are locked in id order, so two bulk operations over overlapping ids cannot deadlock each other
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    long countAndLockByUserIdAndBookingDateAndStatus(UUID userId, LocalDate date, Status status);
+    @Query("select b from Booking b where b.id in :ids order by b.id")
+    List<Booking> findAndLockAllByIdInOrderById(@Param("ids") Collection<UUID> ids);
+
+    interface UserDayCount {
+        UUID getUserId();
+        LocalDate getBookingDate();
+        long getTotal();
+    }
+
+    // Active bookings per (user, day) over the given users and days; pairs not asked for are filtered by the caller
+    @Query("select b.userId as userId, b.bookingDate as bookingDate, count(b) as total from Booking b " +
+            "where b.userId in :userIds and b.bookingDate in :dates and b.status in :statuses group by b.userId, b.bookingDate")
+    List<UserDayCount> countByUserIdsAndBookingDates(@Param("userIds") Collection<UUID> userIds,
+                                                      @Param("dates") Collection<LocalDate> dates,
+                                                      @Param("statuses") Collection<Status> statuses);
+
+    @Query("select b from Booking b where b.sportHallId in :sportHallIds and b.bookingDate in :dates " +
+            "and b.timeSlotId in :timeSlotIds and b.status in :statuses")
+    List<Booking> findBySlotsAndStatusIn(@Param("sportHallIds") Collection<UUID> sportHallIds,
+                                         @Param("dates") Collection<LocalDate> dates,
+                                         @Param("timeSlotIds") Collection<UUID> timeSlotIds,
+                                         @Param("statuses") Collection<Status> statuses);
+
+    // Set-based status changes for bulk operations; the persistence context is cleared, loaded bookings are stale after
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.updatedAt = :now, b.canceledAt = null, b.canceledBy = null where b.id in :ids")
+    int confirmAllById(@Param("ids") Collection<UUID> ids, @Param("status") Status status, @Param("now") OffsetDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.canceledAt = :now, b.canceledBy = :canceledBy where b.id in :ids")
+    int cancelAllById(@Param("ids") Collection<UUID> ids, @Param("status") Status status,
+                      @Param("canceledBy") UUID canceledBy, @Param("now") OffsetDateTime now);
 
     List<Booking> findByUserId(UUID userId);
+
+    List<Booking> findByStatusInAndBookingDateGreaterThanEqual(List<Status> statuses, LocalDate fromDate);
+
+    List<Booking> findBySportHallIdInAndBookingDateBetweenAndStatusIn(Collection<UUID> sportHallIds, LocalDate from, LocalDate to, Collection<Status> statuses);
+
+    // Inserts a pending booking only if the user, hall and slot exist, the cell is free and the user is within quota.
+    // Returns 0 when any condition fails; ux_bookings_active_slot catches concurrent inserts for the same cell. Nothing
+    // catches concurrent inserts for the same user and day, so the quota condition only holds if the caller has locked
+    // the user's profile row beforehand (BookingService.lockQuotaOf).
+    @Modifying
+    @Query(value = """
+            INSERT INTO bookings (id, sport_hall_id, sport_id, user_id, booking_date, time_slot_id,
+                                  participants, purpose, status, total_cost, created_at, updated_at)
+            SELECT CAST(:id AS UUID), CAST(:sportHallId AS UUID), CAST(:sportId AS UUID), p.id, CAST(:bookingDate AS DATE),
+                   CAST(:timeSlotId AS UUID), 1, CAST(:purpose AS VARCHAR), 'pending', 0,
+                   CAST(:now AS TIMESTAMP WITH TIME ZONE), CAST(:now AS TIMESTAMP WITH TIME ZONE)
+            FROM profiles p
+            WHERE p.id = :userId
+              AND EXISTS (SELECT 1 FROM sport_halls h WHERE h.id = :sportHallId)
+              AND EXISTS (SELECT 1 FROM time_slots t WHERE t.id = :timeSlotId)
+              AND NOT EXISTS (SELECT 1 FROM bookings b
+                              WHERE b.sport_hall_id = :sportHallId AND b.booking_date = :bookingDate
+                                AND b.time_slot_id = :timeSlotId AND b.status IN ('pending', 'confirmed'))
+              AND (p.type = 'admin' OR NOT EXISTS (SELECT 1 FROM bookings b
+                              WHERE b.user_id = p.id AND b.booking_date = :bookingDate
+                                AND b.status IN ('pending', 'confirmed')))
+            """, nativeQuery = true)
+    int insertIfAvailable(@Param("id") UUID id,
+                          @Param("userId") UUID userId,
+                          @Param("sportHallId") UUID sportHallId,
+                          @Param("sportId") UUID sportId,
+                          @Param("bookingDate") LocalDate bookingDate,
+                          @Param("timeSlotId") UUID timeSlotId,
+                          @Param("purpose") String purpose,
+                          @Param("now") OffsetDateTime now);
+
+    // Keyset pages over (created_at, id); pass PageRequest.of(0, size) to get a LIMIT without a count query.
+    // Only the list columns are selected, the text columns stay in the database
+    String LIST_ITEM = "select new com.ouroboros.pestadiumbookingbe.dto.BookingListItem(" +
+            "b.id, b.userId, b.sportHallId, b.sportId, b.bookingDate, b.timeSlotId, b.status, b.createdAt) from Booking b ";
+
+    @Query(LIST_ITEM + "order by b.createdAt, b.id")
+    List<BookingListItem> findPage(Pageable pageable);
+
+    @Query(LIST_ITEM + "where b.createdAt > :createdAt or (b.createdAt = :createdAt and b.id > :id) order by b.createdAt, b.id")
+    List<BookingListItem> findPageAfter(@Param("createdAt") OffsetDateTime createdAt, @Param("id") UUID id, Pageable pageable);
+
+    @Query(LIST_ITEM + "where b.userId = :userId order by b.createdAt, b.id")
+    List<BookingListItem> findPageByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query(LIST_ITEM + "where b.userId = :userId and (b.createdAt > :createdAt or (b.createdAt = :createdAt and b.id > :id)) order by b.createdAt, b.id")
+    List<BookingListItem> findPageByUserIdAfter(@Param("userId") UUID userId, @Param("createdAt") OffsetDateTime createdAt, @Param("id") UUID id, Pageable pageable);
+
+    // Server-side cursor for exports; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select b from Booking b order by b.createdAt, b.id")
+    Stream<Booking> streamAllOrderByCreatedAt();
 }
@@ -0,0 +1,71 @@
+package com.ouroboros.pestadiumbookingbe.repository;
+
+import com.ouroboros.pestadiumbookingbe.model.Booking;
+import com.ouroboros.pestadiumbookingbe.model.Profile;
+import com.ouroboros.pestadiumbookingbe.model.ProfileType;
+import com.ouroboros.pestadiumbookingbe.model.SportHall;
+import com.ouroboros.pestadiumbookingbe.model.SportHallLocation;
+import com.ouroboros.pestadiumbookingbe.model.Status;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import com.ouroboros.pestadiumbookingbe.util.BookingCursor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public final class BookingSpecifications {
+
+    private BookingSpecifications() {}
+
+    // Compiles the admin filter page into one statement: bookings joined to profiles and sport_halls only when a filter needs them
+    public static Specification<Booking> matching(Optional<String> studentId,
+                                                  Optional<SportHallLocation> locationOpt,
+                                                  Optional<ProfileType> profileTypeOpt,
+                                                  Optional<Status> statusOpt) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            statusOpt.ifPresent(status -> predicates.add(cb.equal(root.get("status"), status)));
+
+            boolean byStudentId = studentId.isPresent() && !studentId.get().isEmpty();  // "" means no filter
+            if (byStudentId || profileTypeOpt.isPresent()) {
+                Root<Profile> profile = query.from(Profile.class);
+                predicates.add(cb.equal(profile.get("id"), root.get("userId")));
+                if (byStudentId) {
+                    // lower(student_id) LIKE '%...%' is served by the trigram index in db/migration/V5__search_indexes.sql
+                    predicates.add(cb.like(cb.lower(profile.<String>get("studentId")), containsPattern(studentId.get()), '\\'));
+                }
+                profileTypeOpt.ifPresent(type -> predicates.add(cb.equal(profile.get("type"), type)));
+            }
+
+            if (locationOpt.isPresent()) {
+                Root<SportHall> sportHall = query.from(SportHall.class);
+                predicates.add(cb.equal(sportHall.get("id"), root.get("sportHallId")));
+                predicates.add(cb.equal(sportHall.get("location"), locationOpt.get()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Rows strictly after the cursor in (created_at, id) order
+    public static Specification<Booking> after(BookingCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.<OffsetDateTime>get("createdAt"), cursor.createdAt()),
+                cb.and(
+                        cb.equal(root.get("createdAt"), cursor.createdAt()),
+                        cb.greaterThan(root.<UUID>get("id"), cursor.id())));
+    }
+
+    static String containsPattern(String partial) {
+        String escaped = partial.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -0,0 +1,65 @@
+package com.ouroboros.pestadiumbookingbe.repository;
+
+import com.ouroboros.pestadiumbookingbe.model.NotificationOutboxEntry;
+import com.ouroboros.pestadiumbookingbe.model.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEntry, UUID> {
+
+    List<NotificationOutboxEntry> findByBookingId(UUID bookingId);
+
+    @Query("SELECT o.id FROM NotificationOutboxEntry o WHERE o.status = :status AND o.nextAttemptAt <= :now ORDER BY o.nextAttemptAt")
+    List<UUID> findDueIds(@Param("status") OutboxStatus status, @Param("now") OffsetDateTime now, Pageable limit);
+
+    // Takes a lease on a due entry by pushing its next attempt out; only one dispatcher can win it,
+    // and an entry whose dispatcher died becomes due again once the lease runs out
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutboxEntry o SET o.nextAttemptAt = :leaseUntil " +
+           "WHERE o.id = :id AND o.status = com.ouroboros.pestadiumbookingbe.model.OutboxStatus.pending AND o.nextAttemptAt <= :now")
+    int claim(@Param("id") UUID id, @Param("now") OffsetDateTime now, @Param("leaseUntil") OffsetDateTime leaseUntil);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutboxEntry o SET o.status = com.ouroboros.pestadiumbookingbe.model.OutboxStatus.sent, " +
+           "o.attempts = o.attempts + 1, o.sentAt = :now, o.lastError = NULL WHERE o.id = :id")
+    int markSent(@Param("id") UUID id, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutboxEntry o SET o.status = :status, o.attempts = o.attempts + 1, " +
+           "o.nextAttemptAt = :nextAttemptAt, o.lastError = :lastError WHERE o.id = :id")
+    int markFailed(@Param("id") UUID id,
+                   @Param("status") OutboxStatus status,
+                   @Param("nextAttemptAt") OffsetDateTime nextAttemptAt,
+                   @Param("lastError") String lastError);
+
+    // Purges run in batches, so a large backlog never becomes one long delete; sent_at is indexed for sent rows (V8)
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM notification_outbox WHERE id IN (" +
+                   "SELECT id FROM notification_outbox WHERE status = 'sent' AND sent_at < :before LIMIT :limit)",
+           nativeQuery = true)
+    int deleteSentBefore(@Param("before") OffsetDateTime before, @Param("limit") int limit);
+
+    // A failed entry's next_attempt_at is the time it was given up on
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM notification_outbox WHERE id IN (" +
+                   "SELECT id FROM notification_outbox WHERE status = 'failed' AND next_attempt_at < :before LIMIT :limit)",
+           nativeQuery = true)
+    int deleteFailedBefore(@Param("before") OffsetDateTime before, @Param("limit") int limit);
+
+    long countByStatus(OutboxStatus status);
+}
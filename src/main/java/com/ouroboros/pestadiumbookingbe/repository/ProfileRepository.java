@@ -4,8 +4,11 @@ import com.ouroboros.pestadiumbookingbe.model.Profile;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,4 +17,9 @@ import java.util.UUID;
 public interface ProfileRepository extends JpaRepository<Profile, UUID> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<Profile> findAndLockById(UUID id);
+
+    // Rows are locked in id order, so two bulk operations over overlapping users cannot deadlock each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Profile p where p.id in :ids order by p.id")
+    List<Profile> findAndLockAllByIdInOrderById(@Param("ids") Collection<UUID> ids);
 }
@@ -0,0 +1,113 @@
+package com.ouroboros.pestadiumbookingbe.service;
+
+import com.ouroboros.pestadiumbookingbe.dto.AvailabilityMatrix;
+import com.ouroboros.pestadiumbookingbe.dto.HallAvailability;
+import com.ouroboros.pestadiumbookingbe.exception.BadRequestException;
+import com.ouroboros.pestadiumbookingbe.exception.ServiceUnavailableException;
+import com.ouroboros.pestadiumbookingbe.model.Booking;
+import com.ouroboros.pestadiumbookingbe.model.SportHall;
+import com.ouroboros.pestadiumbookingbe.model.Status;
+import com.ouroboros.pestadiumbookingbe.model.TimeSlot;
+import com.ouroboros.pestadiumbookingbe.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+public class AvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityService.class);
+    static final int MAX_DAYS = 62;
+    private static final List<Status> ACTIVE_STATUSES = List.of(Status.pending, Status.confirmed);
+
+    @Autowired
+    private SlotOccupancyIndex slotOccupancyIndex;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    public AvailabilityMatrix getAvailability(LocalDate from, LocalDate to, Optional<UUID> sportHallId) {
+        logger.info("Fetching availability from: {} to: {} for sportHallId: {}", from, to, sportHallId.orElse(null));
+        try {
+            if (from == null || to == null || to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+                logger.warn("Invalid availability range from: {} to: {}", from, to);
+                throw new BadRequestException("Invalid date range, at most " + MAX_DAYS + " days can be requested.");
+            }
+
+            List<TimeSlot> timeSlots = new ArrayList<>(referenceDataCache.getTimeSlots());
+            timeSlots.sort(Comparator.comparing(TimeSlot::getStartTime, Comparator.nullsLast(Comparator.naturalOrder())));
+            List<UUID> timeSlotIds = timeSlots.stream().map(TimeSlot::getId).toList();
+
+            List<UUID> hallIds;
+            if (sportHallId.isPresent()) {
+                if (referenceDataCache.findSportHall(sportHallId.get()).isEmpty()) {
+                    throw new BadRequestException("Sport hall not found");
+                }
+                hallIds = List.of(sportHallId.get());
+            } else {
+                hallIds = referenceDataCache.getSportHalls().stream().map(SportHall::getId).toList();
+            }
+
+            // resolve bit positions once, every row is then a handful of bit tests
+            int[] ordinals = timeSlotIds.stream().mapToInt(slotOccupancyIndex::slotOrdinal).toArray();
+            int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+
+            // the index only holds today onwards, and nothing until it is built; those days are read from the database
+            int uncoveredDays = 0;
+            while (uncoveredDays < days && !slotOccupancyIndex.covers(from.plusDays(uncoveredDays))) {
+                uncoveredDays++;
+            }
+            Set<SlotOccupancyIndex.SlotKey> occupiedInDatabase = new HashSet<>();
+            if (uncoveredDays > 0 && !hallIds.isEmpty()) {
+                logger.info("Reading availability from: {} to: {} from the database", from, from.plusDays(uncoveredDays - 1));
+                List<Booking> active = bookingRepository.findBySportHallIdInAndBookingDateBetweenAndStatusIn(
+                        hallIds, from, from.plusDays(uncoveredDays - 1), ACTIVE_STATUSES);
+                active.forEach(booking -> occupiedInDatabase.add(SlotOccupancyIndex.SlotKey.of(booking)));
+            }
+
+            List<HallAvailability> rows = new ArrayList<>(hallIds.size());
+            for (UUID hallId : hallIds) {
+                int[][] occupied = new int[days][ordinals.length];
+                for (int day = 0; day < uncoveredDays; day++) {
+                    for (int slot = 0; slot < ordinals.length; slot++) {
+                        SlotOccupancyIndex.SlotKey key = new SlotOccupancyIndex.SlotKey(hallId, from.plusDays(day), timeSlotIds.get(slot));
+                        occupied[day][slot] = occupiedInDatabase.contains(key) ? 1 : 0;
+                    }
+                }
+                for (int day = uncoveredDays; day < days; day++) {
+                    BitSet bits = slotOccupancyIndex.occupiedSlots(hallId, from.plusDays(day));
+                    if (bits.isEmpty()) {
+                        continue;
+                    }
+                    for (int slot = 0; slot < ordinals.length; slot++) {
+                        occupied[day][slot] = bits.get(ordinals[slot]) ? 1 : 0;
+                    }
+                }
+                rows.add(new HallAvailability(hallId, occupied));
+            }
+            return new AvailabilityMatrix(from, to, timeSlotIds, rows);
+        } catch (DataAccessResourceFailureException ex) {
+            logger.error("Database error fetching availability", ex);
+            throw new ServiceUnavailableException("Service unavailable due to database issues");
+        } catch (BadRequestException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching availability from: {} to: {}", from, to, e);
+            throw new RuntimeException("Unexpected error fetching availability");
+        }
+    }
+}
@@ -1,44 +1,66 @@
 package com.ouroboros.pestadiumbookingbe.service;
 
+import com.ouroboros.pestadiumbookingbe.config.ProfileRoleCache;
+import com.ouroboros.pestadiumbookingbe.dto.BulkBookingResult;
+import com.ouroboros.pestadiumbookingbe.dto.RecurringBookingResult;
 import com.ouroboros.pestadiumbookingbe.exception.*;
 import com.ouroboros.pestadiumbookingbe.model.Booking;
+import com.ouroboros.pestadiumbookingbe.model.Profile;
 import com.ouroboros.pestadiumbookingbe.model.ProfileType;
 import com.ouroboros.pestadiumbookingbe.model.Status;
 import com.ouroboros.pestadiumbookingbe.notifier.BookingNotificationType;
 import com.ouroboros.pestadiumbookingbe.repository.BookingRepository;
 import com.ouroboros.pestadiumbookingbe.repository.ProfileRepository;
-import com.ouroboros.pestadiumbookingbe.repository.SportHallRepository;
-import com.ouroboros.pestadiumbookingbe.repository.TimeSlotRepository;
+import org.hibernate.id.uuid.CustomVersionOneStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
-import java.util.List;
-import java.util.UUID;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
 
 @Service
 public class BookingService {
 
     private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
+    // Partial unique index over active bookings, see db/migration/V3__booking_constraints.sql
+    static final String ACTIVE_SLOT_INDEX = "ux_bookings_active_slot";
+    private static final List<Status> ACTIVE_STATUSES = List.of(Status.pending, Status.confirmed);
+    // What @UuidGenerator(style = TIME) on Booking.id uses, for the native insert that bypasses it
+    private static final CustomVersionOneStrategy BOOKING_IDS = new CustomVersionOneStrategy();
+    static final int RECURRING_ATTEMPTS = 3;
 
     @Autowired
     public BookingRepository bookingRepository;
     @Autowired
-    public NotificationService notificationService;
+    public NotificationOutboxService notificationOutboxService;
+    @Autowired
+    public NotificationDispatcher notificationDispatcher;
     @Autowired
     public ProfileRepository profileRepository;
     @Autowired
-    public SportHallRepository sportHallRepository;
+    public ReferenceDataCache referenceDataCache;
+    @Autowired
+    public SlotOccupancyIndex slotOccupancyIndex;
+    @Autowired
+    public ProfileRoleCache profileRoleCache;
     @Autowired
-    public TimeSlotRepository timeSlotRepository;
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${bookings.bulk.max-size:500}")
+    int bulkMaxSize;
 
     // Rename validation methods to reflect inverted logic
     boolean isInvalidUser(UUID userId) {
@@ -50,7 +72,7 @@ public class BookingService {
     }
 
     boolean isInvalidSportHall(UUID sportHallId) {
-        if (sportHallRepository.findById(sportHallId).isEmpty()) {
+        if (referenceDataCache.findSportHall(sportHallId).isEmpty()) {
             logger.warn("Sport hall ID not found for sportHallId: {}", sportHallId);
             return true;
         }
@@ -58,7 +80,7 @@ public class BookingService {
     }
 
     boolean isInvalidTimeSlot(UUID timeSlotId) {
-        if (timeSlotRepository.findById(timeSlotId).isEmpty()) {
+        if (referenceDataCache.findTimeSlot(timeSlotId).isEmpty()) {
             logger.warn("Time slot ID not found for timeSlotId: {}", timeSlotId);
             return true;
         }
@@ -77,14 +99,35 @@ public class BookingService {
         return false;
     }
 
+    boolean isAdmin(UUID userId) {
+        return profileRoleCache.roleOf(userId).orElse(null) == ProfileType.admin;
+    }
+
+    // Checked after the booking is locked, so its owner cannot change between the check and the update
+    void requireOwnerOrAdmin(Booking booking, UUID actingUserId, String action) {
+        if (!booking.getUserId().equals(actingUserId) && !isAdmin(actingUserId)) {
+            logger.warn("User {} may not {} booking {} of user {}", actingUserId, action, booking.getId(), booking.getUserId());
+            throw new ForbiddenException("You can only " + action + " your own bookings.");
+        }
+    }
+
+    // The quota checks read other transactions' committed bookings, so under READ COMMITTED two requests for the same
+    // user could both see none and both book. Locking the user's profile row first serializes them; the check runs as a
+    // later statement and so sees whatever the previous holder committed. Admins have no quota and take no lock.
+    void lockQuotaOf(UUID userId) {
+        if (!isAdmin(userId)) {
+            profileRepository.findAndLockById(userId);
+        }
+    }
+
+    // One indexed count; the occupancy index is not asked, as it may still count a booking cancelled on another instance
     boolean quotaExceeded(UUID userId, LocalDate date) {
-        if (profileRepository.findById(userId).get().getType().equals(ProfileType.admin)) {
+        if (isAdmin(userId)) {
             return false;  // admin can have infinite amount of book
         }
 
         // Rule: A user can only have 1 booking/day
-        long count = bookingRepository.countAndLockByUserIdAndBookingDateAndStatus(userId, date, Status.confirmed)
-                + bookingRepository.countAndLockByUserIdAndBookingDateAndStatus(userId, date, Status.pending);
+        long count = bookingRepository.countByUserIdAndBookingDateAndStatusIn(userId, date, ACTIVE_STATUSES);
 
         if (count >= 1) {
             logger.warn("Quota exceeded for userId: {} on date: {}", userId, date);
@@ -93,6 +136,7 @@ public class BookingService {
         return false;
     }
 
+    // Asks the database directly: the locked queries are needed anyway, and the index may hold another instance's stale hit
     boolean isOccupiedBooking(UUID sportHallId, LocalDate date, UUID timeSlotId) {
         List<Booking> existingPendingBooking = bookingRepository.findAndLockBySportHallIdAndBookingDateAndTimeSlotIdAndStatus(
                 sportHallId, date, timeSlotId, Status.pending);
@@ -105,45 +149,103 @@ public class BookingService {
         return false;
     }
 
+    // The conditional insert does not say why it inserted nothing, so re-run the checks (without locks) to pick the error
+    void explainRejectedInsert(UUID userId, UUID sportHallId, UUID sportId, LocalDate date, UUID timeSlotId, String purpose) {
+        if (isInvalidUser(userId) || isInvalidSportHall(sportHallId) || isInvalidTimeSlot(timeSlotId)) {
+            logger.error("Invalid input parameters: userId={}, sportHallId={}, sportId={}, date={}, timeSlotId={}, purpose={}", userId, sportHallId, sportId, date, timeSlotId, purpose);
+            throw new BadRequestException("Invalid input parameters.");
+        }
+        if (quotaExceeded(userId, date)) {
+            throw new QuotaExceededException("Quota exceeded for the user on the given date.");
+        }
+        // Only the occupancy condition is left; even if the blocking booking has gone since, the caller lost the race
+        logger.warn("A booking already exists for sportHallId: {}, date: {}, timeSlotId: {}", sportHallId, date, timeSlotId);
+        throw new ConflictException("A booking already exists for the given combination.");
+    }
+
+    boolean isActiveSlotViolation(DataIntegrityViolationException ex) {
+        Throwable cause = ex;
+        while (cause != null) {
+            if (cause.getMessage() != null && cause.getMessage().contains(ACTIVE_SLOT_INDEX)) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    // Flushed here rather than at commit, so a concurrent booking that took the cell since the occupancy check surfaces
+    // as a conflict inside the calling method instead of as an error from the commit
+    Booking saveAndFlushActive(Booking booking) {
+        try {
+            return bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException ex) {
+            if (isActiveSlotViolation(ex)) {
+                logger.warn("A booking already exists (unique index) for sportHallId: {}, date: {}, timeSlotId: {}", booking.getSportHallId(), booking.getBookingDate(), booking.getTimeSlotId());
+                throw new ConflictException("A booking already exists for the given combination.");
+            }
+            throw ex;
+        }
+    }
+
     @Transactional(timeout = 2)  // 2 seconds timeout to prevent long-running transactions
     public Booking createBooking(UUID userId, UUID sportHallId, UUID sportId, LocalDate date, UUID timeSlotId, String purpose) {
         logger.info("Creating booking for userId: {}, sportHallId: {}, sportId: {}, date: {}, timeSlotId: {}, purpose: {}", userId, sportHallId, sportId, date, timeSlotId, purpose);
         try {
-            // Validate input parameters
-            if (isInvalidUser(userId) || isInvalidSportHall(sportHallId) || isInvalidTimeSlot(timeSlotId) || isInvalidBookingDate(date) || purpose == null || purpose.isEmpty()) {
+            // Cheap checks that need no database access
+            if (isInvalidBookingDate(date) || purpose == null || purpose.isEmpty()) {
                 logger.error("Invalid input parameters: userId={}, sportHallId={}, sportId={}, date={}, timeSlotId={}, purpose={}", userId, sportHallId, sportId, date, timeSlotId, purpose);
                 throw new BadRequestException("Invalid input parameters.");
             }
 
-            // Check user's quota
-            if (quotaExceeded(userId, date)) {
-                throw new ForbiddenException("Quota exceeded for the user on the given date.");
-            }
-
-            // Make sure not overlapping with existing bookings
-            if (isOccupiedBooking(sportHallId, date, timeSlotId)) {
+            // Reject known conflicts before the lock and insert; an index hit is only a hint and costs one indexed read to confirm
+            if (slotOccupancyIndex.confirmOccupied(new SlotOccupancyIndex.SlotKey(sportHallId, date, timeSlotId))) {
+                logger.warn("A booking already exists (occupancy index) for sportHallId: {}, date: {}, timeSlotId: {}", sportHallId, date, timeSlotId);
                 throw new ConflictException("A booking already exists for the given combination.");
             }
+            if (slotOccupancyIndex.activeBookings(userId, date) >= 1 && quotaExceeded(userId, date)) {
+                throw new QuotaExceededException("Quota exceeded for the user on the given date.");
+            }
 
-            // Create and save the new booking
-            Booking booking = new Booking();
-            booking.setUserId(userId);
-            booking.setSportHallId(sportHallId);
-            booking.setSportId(sportId);
-            booking.setBookingDate(date);
-            booking.setTimeSlotId(timeSlotId);
-            booking.setStatus(Status.pending);
-            booking.setPurpose(purpose);
-            booking.setCreatedAt(OffsetDateTime.now());
-            booking.setUpdatedAt(OffsetDateTime.now());
+            // Insert optimistically: validation, quota and occupancy are all checked by the insert itself
+            UUID bookingId = BOOKING_IDS.generateUuid(null);  // the session is not used
+            OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);  // what the column keeps
+            int inserted;
+            lockQuotaOf(userId);
+            try {
+                inserted = bookingRepository.insertIfAvailable(bookingId, userId, sportHallId, sportId, date, timeSlotId, purpose, now);
+            } catch (DataIntegrityViolationException ex) {
+                // Lost a race against a concurrent insert for the same cell
+                if (isActiveSlotViolation(ex)) {
+                    logger.warn("A booking already exists (unique index) for sportHallId: {}, date: {}, timeSlotId: {}", sportHallId, date, timeSlotId);
+                    throw new ConflictException("A booking already exists for the given combination.");
+                }
+                throw ex;
+            }
+            if (inserted == 0) {
+                explainRejectedInsert(userId, sportHallId, sportId, date, timeSlotId, purpose);
+            }
 
-            Booking savedBooking = bookingRepository.save(booking);
+            // The row holds exactly what was passed in plus the insert's constants (also the entity's defaults), so it
+            // is not read back
+            Booking savedBooking = new Booking();
+            savedBooking.setId(bookingId);
+            savedBooking.setUserId(userId);
+            savedBooking.setSportHallId(sportHallId);
+            savedBooking.setSportId(sportId);
+            savedBooking.setBookingDate(date);
+            savedBooking.setTimeSlotId(timeSlotId);
+            savedBooking.setPurpose(purpose);
+            savedBooking.setCreatedAt(now);
+            savedBooking.setUpdatedAt(now);
             logger.info("Booking created successfully for userId: {}, sportHallId: {}, sportId: {}, date: {}, timeSlotId: {}", userId, sportHallId, sportId, date, timeSlotId);
 
-            // Notify after transaction or immediately if no transaction active
+            // Queue the notification with the booking, update the index and wake the dispatcher once committed
+            notificationOutboxService.enqueue(savedBooking, BookingNotificationType.CREATION);
             TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
                 @Override public void afterCommit() {
-                    notificationService.notifyOnBookingChange(savedBooking, BookingNotificationType.CREATION);
+                    slotOccupancyIndex.occupy(savedBooking);
+                    notificationDispatcher.wakeUp();
                 }
             });
 
@@ -162,6 +264,146 @@ public class BookingService {
         throw new RuntimeException("Failed to create booking due to unexpected errors.");
     }
 
+    // Every intervalWeeks weeks from startDate up to and including endDate
+    List<LocalDate> weeklyOccurrences(LocalDate startDate, LocalDate endDate, int intervalWeeks) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate d = startDate; !d.isAfter(endDate); d = d.plusWeeks(intervalWeeks)) {
+            dates.add(d);
+        }
+        return dates;
+    }
+
+    /**
+     * Books the same hall and time slot on every occurrence of a weekly rule. The user, hall and slot are validated
+     * once, quota and occupancy for all dates are read with one query each, and the free dates are inserted together.
+     * Dates that are taken or over quota are reported in the result instead of failing the whole request.
+     * <p>
+     * A concurrent booking can take one of the dates between the read and the insert; ux_bookings_active_slot then
+     * fails the insert and with it the transaction. The series is read and inserted again in a new transaction, where
+     * the lost date shows up as conflicted, up to {@value #RECURRING_ATTEMPTS} times.
+     */
+    public RecurringBookingResult createRecurringBooking(UUID userId, UUID sportHallId, UUID sportId, UUID timeSlotId,
+                                                         LocalDate startDate, LocalDate endDate, Integer intervalWeeks, String purpose) {
+        logger.info("Creating recurring booking for userId: {}, sportHallId: {}, sportId: {}, timeSlotId: {}, from: {}, to: {}, every {} week(s), purpose: {}", userId, sportHallId, sportId, timeSlotId, startDate, endDate, intervalWeeks, purpose);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setTimeout(10);  // one transaction for the whole series, still bounded
+        try {
+            // Cheap checks that need no database access
+            if (userId == null || sportHallId == null || sportId == null || timeSlotId == null ||
+                    startDate == null || endDate == null || endDate.isBefore(startDate) ||
+                    intervalWeeks == null || intervalWeeks < 1 ||
+                    isInvalidBookingDate(startDate) || isInvalidBookingDate(endDate) ||
+                    purpose == null || purpose.isEmpty()) {
+                logger.error("Invalid input parameters: userId={}, sportHallId={}, sportId={}, timeSlotId={}, startDate={}, endDate={}, intervalWeeks={}, purpose={}", userId, sportHallId, sportId, timeSlotId, startDate, endDate, intervalWeeks, purpose);
+                throw new BadRequestException("Invalid input parameters.");
+            }
+            List<LocalDate> dates = weeklyOccurrences(startDate, endDate, intervalWeeks);
+            if (dates.size() > bulkMaxSize) {
+                logger.error("Recurring booking with {} occurrences exceeds the limit of {}", dates.size(), bulkMaxSize);
+                throw new BadRequestException("At most " + bulkMaxSize + " bookings can be processed at once.");
+            }
+
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transaction.execute(status -> insertRecurringBooking(userId, sportHallId, sportId, timeSlotId, dates, purpose));
+                } catch (DataIntegrityViolationException ex) {
+                    if (!isActiveSlotViolation(ex)) {
+                        throw ex;
+                    }
+                    if (attempt >= RECURRING_ATTEMPTS) {
+                        logger.warn("A booking already exists (unique index) for one of the dates of sportHallId: {}, timeSlotId: {}, giving up after {} attempts", sportHallId, timeSlotId, attempt);
+                        throw new ConflictException("A booking already exists for the given combination.");
+                    }
+                    logger.info("A concurrent booking took one of the dates of sportHallId: {}, timeSlotId: {}, reading the series again", sportHallId, timeSlotId);
+                }
+            }
+        } catch (DataAccessResourceFailureException ex) {
+            logger.error("Database error during recurring booking creation", ex);
+            throw new ServiceUnavailableException("The service is temporarily unavailable due to database issues. Please try again later.");
+        } catch (TransactionTimedOutException ex) {
+             logger.error("Transaction timed out during recurring booking creation", ex);
+             throw new RequestTimeoutException("The request timed out. Please try again later.");
+        } catch (BadRequestException | ForbiddenException | ConflictException e) {
+            throw e;
+        } catch (Exception e) {
+             logger.error("Error occurred while creating recurring booking: {}", e.getMessage(), e);
+             throw new RuntimeException("Failed to create recurring booking due to unexpected errors.");
+        }
+    }
+
+    // One attempt at the series, inside the transaction started by createRecurringBooking
+    RecurringBookingResult insertRecurringBooking(UUID userId, UUID sportHallId, UUID sportId, UUID timeSlotId,
+                                                  List<LocalDate> dates, String purpose) {
+        // Validated once for the whole series; locked so the quota read below cannot race another booking of the user
+        Profile profile = profileRepository.findAndLockById(userId).orElse(null);
+        if (profile == null || isInvalidSportHall(sportHallId) || isInvalidTimeSlot(timeSlotId)) {
+            logger.error("Invalid input parameters: userId={}, sportHallId={}, sportId={}, timeSlotId={}", userId, sportHallId, sportId, timeSlotId);
+            throw new BadRequestException("Invalid input parameters.");
+        }
+
+        Set<LocalDate> occupiedDates = new HashSet<>();
+        for (Booking booking : bookingRepository.findBySlotsAndStatusIn(Set.of(sportHallId), dates, Set.of(timeSlotId), ACTIVE_STATUSES)) {
+            occupiedDates.add(booking.getBookingDate());
+        }
+        Set<LocalDate> bookedDays = new HashSet<>();
+        if (profile.getType() != ProfileType.admin) {  // admin can have infinite amount of book
+            for (BookingRepository.UserDayCount count : bookingRepository.countByUserIdsAndBookingDates(Set.of(userId), dates, ACTIVE_STATUSES)) {
+                if (count.getTotal() >= 1) {
+                    bookedDays.add(count.getBookingDate());
+                }
+            }
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<RecurringBookingResult.Occurrence> occurrences = new ArrayList<>(dates.size());
+        List<Booking> toCreate = new ArrayList<>();
+        for (LocalDate d : dates) {
+            if (occupiedDates.contains(d)) {
+                logger.warn("A booking already exists for sportHallId: {}, date: {}, timeSlotId: {}", sportHallId, d, timeSlotId);
+                occurrences.add(RecurringBookingResult.Occurrence.conflicted(d, "A booking already exists for the given combination."));
+            } else if (bookedDays.contains(d)) {
+                logger.warn("Quota exceeded for userId: {} on date: {}", userId, d);
+                occurrences.add(RecurringBookingResult.Occurrence.conflicted(d, "Quota exceeded for the user on the given date."));
+            } else {
+                Booking booking = new Booking();
+                booking.setUserId(userId);
+                booking.setSportHallId(sportHallId);
+                booking.setSportId(sportId);
+                booking.setBookingDate(d);
+                booking.setTimeSlotId(timeSlotId);
+                booking.setPurpose(purpose);
+                booking.setCreatedAt(now);
+                booking.setUpdatedAt(now);
+                toCreate.add(booking);
+                occurrences.add(null);  // filled in once the id is known
+            }
+        }
+
+        if (!toCreate.isEmpty()) {
+            // Inserted in JDBC batches (hibernate.jdbc.batch_size); flushed here so a concurrent booking for one of the
+            // cells fails this attempt, see createRecurringBooking
+            List<Booking> savedBookings = bookingRepository.saveAllAndFlush(toCreate);
+            Iterator<Booking> saved = savedBookings.iterator();
+            for (int i = 0; i < occurrences.size(); i++) {
+                if (occurrences.get(i) == null) {
+                    Booking booking = saved.next();
+                    occurrences.set(i, RecurringBookingResult.Occurrence.created(booking.getBookingDate(), booking.getId()));
+                }
+            }
+
+            notificationOutboxService.enqueueAll(savedBookings, BookingNotificationType.CREATION);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() {
+                    savedBookings.forEach(slotOccupancyIndex::occupy);
+                    notificationDispatcher.wakeUp();
+                }
+            });
+        }
+
+        logger.info("Recurring booking created {} of {} occurrences for userId: {}", toCreate.size(), dates.size(), userId);
+        return new RecurringBookingResult(occurrences);
+    }
+
     // Ensure consistent usage of pessimistic locking in confirmBooking
     @Transactional(timeout = 2)  // 2 seconds timeout to prevent long-running transactions
     public Booking confirmBooking(UUID bookingId, UUID confirmedBy) {
@@ -182,9 +424,14 @@ public class BookingService {
                 throw new BadRequestException("Only pending/rejected bookings can be confirmed.");
             }
 
-            if (booking.getStatus() == Status.rejected) {  // must check quota for confirming a rejected booking
+            boolean wasRejected = booking.getStatus() == Status.rejected;
+            if (wasRejected) {  // must check quota and occupancy for confirming a rejected booking
+                lockQuotaOf(booking.getUserId());
                 if (quotaExceeded(booking.getUserId(), booking.getBookingDate())) {
-                    throw new ForbiddenException("Quota exceeded for the user on the booking date.");
+                    throw new QuotaExceededException("Quota exceeded for the user on the booking date.");
+                }
+                if (isOccupiedBooking(booking.getSportHallId(), booking.getBookingDate(), booking.getTimeSlotId())) {
+                    throw new ConflictException("A booking already exists for the given combination.");
                 }
             }
 
@@ -193,11 +440,13 @@ public class BookingService {
             booking.setUpdatedAt(OffsetDateTime.now());
             booking.setCanceledAt(null);
             booking.setCanceledBy(null);
-            Booking savedBooking = bookingRepository.save(booking);
+            Booking savedBooking = wasRejected ? saveAndFlushActive(booking) : bookingRepository.save(booking);
+            notificationOutboxService.enqueue(savedBooking, BookingNotificationType.CONFIRMATION);
             // Notify
             TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
                 @Override public void afterCommit() {
-                    notificationService.notifyOnBookingChange(savedBooking, BookingNotificationType.CONFIRMATION);
+                    slotOccupancyIndex.occupy(savedBooking);
+                    notificationDispatcher.wakeUp();
                 }
             });
 
@@ -208,7 +457,7 @@ public class BookingService {
         } catch (TransactionTimedOutException ex) {
              logger.error("Transaction timed out during booking confirmation for booking ID: {}", bookingId, ex);
              throw new RequestTimeoutException("The request timed out. Please try again later.");
-        } catch (BadRequestException | ForbiddenException e) {
+        } catch (BadRequestException | ForbiddenException | ConflictException e) {
             throw e;
         } catch (Exception e) {
              logger.error("Unexpected error confirming booking with ID: {}", bookingId, e);
@@ -229,6 +478,7 @@ public class BookingService {
             if (isInvalidUser(canceledBy)) {
                 throw new BadRequestException("User profile not found.");
             }
+            requireOwnerOrAdmin(booking, canceledBy, "cancel");
             if (booking.getStatus() != Status.pending && booking.getStatus() != Status.confirmed) {
                 logger.error("Invalid booking status for cancellation: {}", booking.getStatus());
                 throw new BadRequestException("Only pending/confirmed bookings can be canceled.");
@@ -237,10 +487,12 @@ public class BookingService {
             booking.setCanceledBy(canceledBy);
             booking.setStatus(Status.rejected);
             Booking savedBooking = bookingRepository.save(booking);
+            notificationOutboxService.enqueue(savedBooking, BookingNotificationType.CANCELLATION);
             // Notify
             TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
                 @Override public void afterCommit() {
-                    notificationService.notifyOnBookingChange(savedBooking, BookingNotificationType.CANCELLATION);
+                    slotOccupancyIndex.release(savedBooking);
+                    notificationDispatcher.wakeUp();
                 }
             });
 
@@ -260,6 +512,216 @@ public class BookingService {
         }
     }
 
+    // Distinct ids in request order; rejects empty, oversized or malformed requests as a whole
+    Set<UUID> requireBulkIds(List<UUID> bookingIds) {
+        if (bookingIds == null || bookingIds.isEmpty() || bookingIds.stream().anyMatch(Objects::isNull)) {
+            logger.error("Invalid booking ids for bulk operation: {}", bookingIds);
+            throw new BadRequestException("Invalid input parameters.");
+        }
+        Set<UUID> ids = new LinkedHashSet<>(bookingIds);
+        if (ids.size() > bulkMaxSize) {
+            logger.error("Bulk operation over {} bookings exceeds the limit of {}", ids.size(), bulkMaxSize);
+            throw new BadRequestException("At most " + bulkMaxSize + " bookings can be processed at once.");
+        }
+        return ids;
+    }
+
+    Map<UUID, Booking> lockAll(Set<UUID> ids) {
+        Map<UUID, Booking> bookings = new HashMap<>();
+        for (Booking booking : bookingRepository.findAndLockAllByIdInOrderById(ids)) {
+            bookings.put(booking.getId(), booking);
+        }
+        return bookings;
+    }
+
+    private record UserDay(UUID userId, LocalDate date) {}
+
+    // Quota and occupancy for rejected bookings about to be confirmed, with one grouped query each instead of one per booking.
+    // Bookings accepted earlier in the same batch count towards the later ones.
+    List<Booking> admitRejected(List<Booking> rejected, Map<UUID, BulkBookingResult.Item> results) {
+        if (rejected.isEmpty()) {
+            return List.of();
+        }
+        Set<UUID> userIds = new HashSet<>();
+        Set<LocalDate> dates = new HashSet<>();
+        Set<UUID> sportHallIds = new HashSet<>();
+        Set<UUID> timeSlotIds = new HashSet<>();
+        for (Booking booking : rejected) {
+            userIds.add(booking.getUserId());
+            dates.add(booking.getBookingDate());
+            sportHallIds.add(booking.getSportHallId());
+            timeSlotIds.add(booking.getTimeSlotId());
+        }
+
+        // Locked, in id order, so the quota counts below cannot race other bookings of these users
+        Set<UUID> admins = new HashSet<>();
+        for (Profile profile : profileRepository.findAndLockAllByIdInOrderById(userIds)) {
+            if (profile.getType() == ProfileType.admin) {
+                admins.add(profile.getId());  // admin can have infinite amount of book
+            }
+        }
+        Map<UserDay, Long> activeCounts = new HashMap<>();
+        for (BookingRepository.UserDayCount count : bookingRepository.countByUserIdsAndBookingDates(userIds, dates, ACTIVE_STATUSES)) {
+            activeCounts.put(new UserDay(count.getUserId(), count.getBookingDate()), count.getTotal());
+        }
+        Set<SlotOccupancyIndex.SlotKey> occupied = new HashSet<>();
+        for (Booking booking : bookingRepository.findBySlotsAndStatusIn(sportHallIds, dates, timeSlotIds, ACTIVE_STATUSES)) {
+            occupied.add(SlotOccupancyIndex.SlotKey.of(booking));
+        }
+
+        List<Booking> admitted = new ArrayList<>();
+        for (Booking booking : rejected) {
+            UserDay userDay = new UserDay(booking.getUserId(), booking.getBookingDate());
+            SlotOccupancyIndex.SlotKey slot = SlotOccupancyIndex.SlotKey.of(booking);
+            // Rule: A user can only have 1 booking/day
+            if (!admins.contains(booking.getUserId()) && activeCounts.getOrDefault(userDay, 0L) >= 1) {
+                logger.warn("Quota exceeded for userId: {} on date: {}", booking.getUserId(), booking.getBookingDate());
+                results.put(booking.getId(), BulkBookingResult.Item.failed(booking.getId(), booking.getStatus(), "Quota exceeded for the user on the booking date."));
+            } else if (occupied.contains(slot)) {
+                logger.warn("A booking already exists for sportHallId: {}, date: {}, timeSlotId: {}", slot.sportHallId(), slot.bookingDate(), slot.timeSlotId());
+                results.put(booking.getId(), BulkBookingResult.Item.failed(booking.getId(), booking.getStatus(), "A booking already exists for the given combination."));
+            } else {
+                activeCounts.merge(userDay, 1L, Long::sum);
+                occupied.add(slot);
+                admitted.add(booking);
+            }
+        }
+        return admitted;
+    }
+
+    @Transactional(timeout = 10)  // one transaction for the whole batch, still bounded
+    public BulkBookingResult bulkConfirmBookings(List<UUID> bookingIds, UUID confirmedBy) {
+        logger.info("Bulk confirming {} bookings by user: {}", bookingIds != null ? bookingIds.size() : 0, confirmedBy);
+        try {
+            Set<UUID> ids = requireBulkIds(bookingIds);
+            if (isInvalidUser(confirmedBy)) {
+                throw new BadRequestException("User profile not found.");
+            }
+
+            Map<UUID, Booking> bookings = lockAll(ids);
+            Map<UUID, BulkBookingResult.Item> results = new HashMap<>();
+            List<Booking> toConfirm = new ArrayList<>();
+            List<Booking> rejected = new ArrayList<>();
+            for (UUID id : ids) {
+                Booking booking = bookings.get(id);
+                if (booking == null) {
+                    logger.error("Booking not found with ID: {}", id);
+                    results.put(id, BulkBookingResult.Item.failed(id, null, "Booking not found."));
+                } else if (booking.getStatus() == Status.pending) {
+                    toConfirm.add(booking);
+                } else if (booking.getStatus() == Status.rejected) {  // must check quota for confirming a rejected booking
+                    rejected.add(booking);
+                } else {
+                    logger.error("Booking with ID: {} is not in pending/rejected status. Current status: {}", id, booking.getStatus());
+                    results.put(id, BulkBookingResult.Item.failed(id, booking.getStatus(), "Only pending/rejected bookings can be confirmed."));
+                }
+            }
+            toConfirm.addAll(admitRejected(rejected, results));
+
+            if (!toConfirm.isEmpty()) {
+                OffsetDateTime now = OffsetDateTime.now();
+                bookingRepository.confirmAllById(toConfirm.stream().map(Booking::getId).toList(), Status.confirmed, now);
+                for (Booking booking : toConfirm) {
+                    booking.setStatus(Status.confirmed);
+                    booking.setUpdatedAt(now);
+                    booking.setCanceledAt(null);
+                    booking.setCanceledBy(null);
+                    results.put(booking.getId(), BulkBookingResult.Item.ok(booking.getId(), Status.confirmed));
+                }
+                notificationOutboxService.enqueueAll(toConfirm, BookingNotificationType.CONFIRMATION);
+                // Notify
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override public void afterCommit() {
+                        toConfirm.forEach(slotOccupancyIndex::occupy);
+                        notificationDispatcher.wakeUp();
+                    }
+                });
+            }
+
+            logger.info("Bulk confirmed {} of {} bookings", toConfirm.size(), ids.size());
+            return new BulkBookingResult(ids.stream().map(results::get).toList());
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent booking took one of the slots after the occupancy check
+            if (isActiveSlotViolation(ex)) {
+                logger.warn("A booking already exists (unique index) for one of the bookings being confirmed", ex);
+                throw new ConflictException("A booking already exists for the given combination.");
+            }
+            logger.error("Database error during bulk booking confirmation", ex);
+            throw new ServiceUnavailableException("The service is temporarily unavailable due to database issues. Please try again later.");
+        } catch (org.springframework.dao.DataAccessException ex) {
+            logger.error("Database error during bulk booking confirmation", ex);
+            throw new ServiceUnavailableException("The service is temporarily unavailable due to database issues. Please try again later.");
+        } catch (TransactionTimedOutException ex) {
+             logger.error("Transaction timed out during bulk booking confirmation", ex);
+             throw new RequestTimeoutException("The request timed out. Please try again later.");
+        } catch (BadRequestException | ForbiddenException | ConflictException e) {
+            throw e;
+        } catch (Exception e) {
+             logger.error("Unexpected error bulk confirming bookings", e);
+             throw new RuntimeException("An unexpected error occurred while confirming the bookings.");
+        }
+    }
+
+    @Transactional(timeout = 10)  // one transaction for the whole batch, still bounded
+    public BulkBookingResult bulkCancelBookings(List<UUID> bookingIds, UUID canceledBy) {
+        logger.info("Bulk canceling {} bookings by user: {}", bookingIds != null ? bookingIds.size() : 0, canceledBy);
+        try {
+            Set<UUID> ids = requireBulkIds(bookingIds);
+            if (isInvalidUser(canceledBy)) {
+                throw new BadRequestException("User profile not found.");
+            }
+
+            Map<UUID, Booking> bookings = lockAll(ids);
+            Map<UUID, BulkBookingResult.Item> results = new HashMap<>();
+            List<Booking> toCancel = new ArrayList<>();
+            for (UUID id : ids) {
+                Booking booking = bookings.get(id);
+                if (booking == null) {
+                    logger.error("Booking not found with ID: {}", id);
+                    results.put(id, BulkBookingResult.Item.failed(id, null, "Booking not found."));
+                } else if (booking.getStatus() != Status.pending && booking.getStatus() != Status.confirmed) {
+                    logger.error("Invalid booking status for cancellation: {}", booking.getStatus());
+                    results.put(id, BulkBookingResult.Item.failed(id, booking.getStatus(), "Only pending/confirmed bookings can be canceled."));
+                } else {
+                    toCancel.add(booking);
+                }
+            }
+
+            if (!toCancel.isEmpty()) {
+                OffsetDateTime now = OffsetDateTime.now();
+                bookingRepository.cancelAllById(toCancel.stream().map(Booking::getId).toList(), Status.rejected, canceledBy, now);
+                for (Booking booking : toCancel) {
+                    booking.setCanceledAt(now);
+                    booking.setCanceledBy(canceledBy);
+                    booking.setStatus(Status.rejected);
+                    results.put(booking.getId(), BulkBookingResult.Item.ok(booking.getId(), Status.rejected));
+                }
+                notificationOutboxService.enqueueAll(toCancel, BookingNotificationType.CANCELLATION);
+                // Notify
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override public void afterCommit() {
+                        toCancel.forEach(slotOccupancyIndex::release);
+                        notificationDispatcher.wakeUp();
+                    }
+                });
+            }
+
+            logger.info("Bulk canceled {} of {} bookings", toCancel.size(), ids.size());
+            return new BulkBookingResult(ids.stream().map(results::get).toList());
+        } catch (DataAccessResourceFailureException ex) {
+            logger.error("Database error during bulk booking cancellation", ex);
+            throw new ServiceUnavailableException("The service is temporarily unavailable due to database issues. Please try again later.");
+        } catch (TransactionTimedOutException ex) {
+             logger.error("Transaction timed out during bulk booking cancellation", ex);
+             throw new RequestTimeoutException("The request timed out. Please try again later.");
+        } catch (BadRequestException | ForbiddenException e) {
+            throw e;
+        } catch (Exception e) {
+             logger.error("Unexpected error bulk canceling bookings", e);
+             throw new RuntimeException("An unexpected error occurred while canceling the bookings.");
+        }
+    }
+
     @Transactional(timeout = 2)  // 2 seconds timeout to prevent long-running transactions
     public Booking modifyBooking(UUID bookingId, UUID modifiedByUserId, UUID userId, UUID sportHallId, UUID sportId, LocalDate date, UUID timeSlotId, String purpose) {
         logger.info("Modifying booking with ID: {} for userId: {}, sportHallId: {}, sportId: {}, date: {}, timeSlotId: {}, purpose: {}", bookingId, userId, sportHallId, sportId, date, timeSlotId, purpose);
@@ -278,6 +740,7 @@ public class BookingService {
                 logger.error("Booking not found with ID: {}", bookingId);
                 throw new BadRequestException("Booking not found.");
             }
+            requireOwnerOrAdmin(booking, modifiedByUserId, "modify");
 
             if (booking.getStatus() != Status.pending && booking.getStatus() != Status.confirmed) {
                 logger.error("Invalid booking status for modification: {}", booking.getStatus());
@@ -285,8 +748,11 @@ public class BookingService {
             }
 
             // Quota check: if the booking date is changed, check if the user exceeds their quota on the new date
-            if (!booking.getBookingDate().equals(date) && quotaExceeded(userId, date)) {
-                throw new ForbiddenException("Quota exceeded for the user on the new date.");
+            if (!booking.getBookingDate().equals(date)) {
+                lockQuotaOf(userId);
+                if (quotaExceeded(userId, date)) {
+                    throw new QuotaExceededException("Quota exceeded for the user on the new date.");
+                }
             }
 
             // is occupied by another booking (not itself)
@@ -299,6 +765,8 @@ public class BookingService {
                 }
             }
 
+            SlotOccupancyIndex.SlotKey previousSlot = SlotOccupancyIndex.SlotKey.of(booking);
+
             // Update booking details
             booking.setSportHallId(sportHallId);
             booking.setSportId(sportId);
@@ -310,11 +778,16 @@ public class BookingService {
             booking.setCanceledAt(null);  // Clear cancellation details
             booking.setCanceledBy(null);  // Clear cancellation details
             booking.setStatus(Status.pending);  // Reset status to pending, waiting for confirmation from admin
-            Booking savedBooking = bookingRepository.save(booking);
+            Booking savedBooking = saveAndFlushActive(booking);
+            notificationOutboxService.enqueue(savedBooking, BookingNotificationType.MODIFICATION);
             // Notify
             TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
                 @Override public void afterCommit() {
-                    notificationService.notifyOnBookingChange(savedBooking, BookingNotificationType.MODIFICATION);
+                    if (!SlotOccupancyIndex.SlotKey.of(savedBooking).equals(previousSlot)) {
+                        slotOccupancyIndex.release(previousSlot, savedBooking.getId());
+                    }
+                    slotOccupancyIndex.occupy(savedBooking);  // also moves the booking to its new user and date
+                    notificationDispatcher.wakeUp();
                 }
             });
 
@@ -347,12 +820,15 @@ public class BookingService {
             if (isInvalidUser(deletedBy)) {
                 throw new BadRequestException("User profile not found.");
             }
+            requireOwnerOrAdmin(booking, deletedBy, "delete");
 
             bookingRepository.delete(booking);
+            notificationOutboxService.enqueue(booking, BookingNotificationType.DELETION);
             // Notify
             TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
                 @Override public void afterCommit() {
-                    notificationService.notifyOnBookingChange(booking, BookingNotificationType.DELETION);
+                    slotOccupancyIndex.release(booking);
+                    notificationDispatcher.wakeUp();
                 }
             });
 
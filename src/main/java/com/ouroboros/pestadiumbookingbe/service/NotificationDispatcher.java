@@ -0,0 +1,249 @@
+package com.ouroboros.pestadiumbookingbe.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ouroboros.pestadiumbookingbe.model.Booking;
+import com.ouroboros.pestadiumbookingbe.model.NotificationOutboxEntry;
+import com.ouroboros.pestadiumbookingbe.model.OutboxStatus;
+import com.ouroboros.pestadiumbookingbe.repository.NotificationOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Drains the notification outbox in the background. Entries are claimed with a lease, handed to a fixed pool of
+ * senders and marked sent only once the handler returns, so delivery is at-least-once: an entry whose send failed,
+ * or whose JVM died mid-send, becomes due again and is retried with exponential backoff up to a maximum. Sent entries
+ * are purged after a retention period; failed ones are kept longer for inspection and counted in
+ * {@code notifications.outbox.failed}, which alerts should watch.
+ */
+@Component
+public class NotificationDispatcher implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+    @Autowired
+    private NotificationService notificationService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${notifications.outbox.enabled:true}")
+    private boolean enabled;
+    @Value("${notifications.outbox.concurrency:4}")
+    private int concurrency;
+    // deliveries waiting on the mail provider, may exceed the threads since sends are asynchronous
+    @Value("${notifications.outbox.max-in-flight:64}")
+    private int maxInFlight;
+    @Value("${notifications.outbox.max-attempts:8}")
+    private int maxAttempts;
+    @Value("${notifications.outbox.initial-backoff:30s}")
+    private Duration initialBackoff;
+    @Value("${notifications.outbox.max-backoff:1h}")
+    private Duration maxBackoff;
+    // longer than any single send can take, otherwise a slow send would be picked up twice
+    @Value("${notifications.outbox.lease:5m}")
+    private Duration lease;
+    @Value("${notifications.outbox.sent-retention:7d}")
+    private Duration sentRetention;
+    @Value("${notifications.outbox.failed-retention:30d}")
+    private Duration failedRetention;
+    @Value("${notifications.outbox.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    private ExecutorService poller;
+    private ExecutorService senders;
+    private Semaphore deliverySlots;
+    // Sender threads and mail callbacks share one connection, so with the poller the dispatcher never holds more than
+    // two (part of DatabaseBulkhead's reserve)
+    private final Semaphore connection = new Semaphore(1);
+    private final AtomicBoolean pollQueued = new AtomicBoolean();
+    // failed entries as of the last purge; -1 until the first one has run
+    private final AtomicLong failedEntries = new AtomicLong(-1);
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        poller = Executors.newSingleThreadExecutor(r -> daemon(r, "outbox-poller"));
+        senders = Executors.newFixedThreadPool(concurrency, r -> daemon(r, "outbox-sender-" + threadCount.incrementAndGet()));
+        deliverySlots = new Semaphore(maxInFlight);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        poller.shutdownNow();
+        senders.shutdown();
+        // entries still in flight keep their lease and are retried by the next instance
+        senders.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /** Asks for a poll soon, e.g. right after a booking commit; polls requested while one is queued are merged. */
+    public void wakeUp() {
+        if (enabled && pollQueued.compareAndSet(false, true)) {
+            poller.execute(() -> {
+                pollQueued.set(false);
+                dispatchDue();
+            });
+        }
+    }
+
+    // Picks up retries and anything a crashed instance left behind
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval-ms:10000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    // Also refreshes the failed count, so a backlog of given-up notifications shows up even with nothing to purge
+    @Scheduled(initialDelayString = "${notifications.outbox.purge-interval-ms:3600000}",
+            fixedDelayString = "${notifications.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            OffsetDateTime now = OffsetDateTime.now();
+            int sent = purgeBatches(limit -> notificationOutboxRepository.deleteSentBefore(now.minus(sentRetention), limit));
+            int failed = purgeBatches(limit -> notificationOutboxRepository.deleteFailedBefore(now.minus(failedRetention), limit));
+            long remainingFailed = withConnection(() -> notificationOutboxRepository.countByStatus(OutboxStatus.failed));
+            failedEntries.set(remainingFailed);
+            logger.info("Purged {} sent and {} failed notification outbox entries, {} failed entries remain", sent, failed, remainingFailed);
+            if (remainingFailed > 0) {
+                logger.warn("{} notifications could not be delivered, see notification_outbox.last_error", remainingFailed);
+            }
+        } catch (Exception e) {
+            logger.error("Error purging notification outbox", e);
+        }
+    }
+
+    private int purgeBatches(IntUnaryOperator deleteBatch) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = withConnection(() -> deleteBatch.applyAsInt(purgeBatchSize));
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        return total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("notifications.outbox.failed", failedEntries, AtomicLong::get)
+                .description("Notifications given up on after max-attempts and not yet purged")
+                .register(registry);
+    }
+
+    void dispatchDue() {
+        try {
+            int free = deliverySlots.availablePermits();
+            if (free == 0) {
+                return;  // too many deliveries in flight, the next poll picks the rest up
+            }
+            OffsetDateTime now = OffsetDateTime.now();
+            List<UUID> due = notificationOutboxRepository.findDueIds(OutboxStatus.pending, now, PageRequest.of(0, free));
+            for (UUID id : due) {
+                if (notificationOutboxRepository.claim(id, now, now.plus(lease)) == 0) {
+                    continue;  // taken by another instance
+                }
+                deliverySlots.acquireUninterruptibly();
+                senders.execute(() -> {
+                    try {
+                        withConnection(() -> notificationOutboxRepository.findById(id))
+                                .map(this::process)
+                                .orElseGet(() -> CompletableFuture.completedFuture(null))
+                                .whenComplete((ignored, e) -> deliverySlots.release());
+                    } catch (Exception e) {
+                        deliverySlots.release();
+                        logger.error("Error dispatching notification outbox entry: {}", id, e);
+                    }
+                });
+            }
+            if (due.size() == free) {
+                wakeUp();  // there may be more waiting
+            }
+        } catch (Exception e) {
+            logger.error("Error polling notification outbox", e);
+        }
+    }
+
+    // The permit is held until the mail is accepted, so max-in-flight bounds deliveries, not just threads
+    CompletableFuture<Void> process(NotificationOutboxEntry entry) {
+        CompletableFuture<Void> delivery;
+        try {
+            Booking booking = objectMapper.readValue(entry.getPayload(), Booking.class);
+            delivery = notificationService.deliver(booking, entry.getType());
+        } catch (Exception e) {
+            delivery = CompletableFuture.failedFuture(e);
+        }
+        return delivery.handle((ignored, failure) -> {
+            if (failure == null) {
+                withConnection(() -> notificationOutboxRepository.markSent(entry.getId(), OffsetDateTime.now()));
+                logger.info("Sent {} notification for booking: {}", entry.getType(), entry.getBookingId());
+            } else {
+                recordFailure(entry, failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+            }
+            return null;
+        });
+    }
+
+    private void recordFailure(NotificationOutboxEntry entry, Throwable e) {
+        int attempts = entry.getAttempts() + 1;
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+        String error = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+        if (attempts >= maxAttempts) {
+            logger.error("Giving up on {} notification for booking: {} after {} attempts", entry.getType(), entry.getBookingId(), attempts, e);
+            withConnection(() -> notificationOutboxRepository.markFailed(entry.getId(), OutboxStatus.failed, OffsetDateTime.now(), error));
+        } else {
+            Duration backoff = backoff(attempts);
+            logger.warn("Failed to send {} notification for booking: {} (attempt {}), retrying in {}: {}",
+                    entry.getType(), entry.getBookingId(), attempts, backoff, error);
+            withConnection(() -> notificationOutboxRepository.markFailed(entry.getId(), OutboxStatus.pending, OffsetDateTime.now().plus(backoff), error));
+        }
+    }
+
+    private <T> T withConnection(Supplier<T> work) {
+        connection.acquireUninterruptibly();
+        try {
+            return work.get();
+        } finally {
+            connection.release();
+        }
+    }
+
+    Duration backoff(int attempts) {
+        // initial, 2x, 4x ... capped, the shift is bounded so it cannot overflow
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
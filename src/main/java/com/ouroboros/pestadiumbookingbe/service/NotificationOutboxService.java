@@ -0,0 +1,63 @@
+package com.ouroboros.pestadiumbookingbe.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ouroboros.pestadiumbookingbe.model.Booking;
+import com.ouroboros.pestadiumbookingbe.model.NotificationOutboxEntry;
+import com.ouroboros.pestadiumbookingbe.notifier.BookingNotificationType;
+import com.ouroboros.pestadiumbookingbe.repository.NotificationOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Service
+public class NotificationOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxService.class);
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Must join the transaction making the booking change, so the notification commits or rolls back with it
+    @Transactional(propagation = Propagation.MANDATORY)
+    public NotificationOutboxEntry enqueue(Booking booking, BookingNotificationType type) {
+        NotificationOutboxEntry entry = newEntry(booking, type);
+        logger.debug("Queued {} notification for booking: {}", type, booking.getId());
+        return notificationOutboxRepository.save(entry);
+    }
+
+    // One entry per booking, written with a single saveAll
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<NotificationOutboxEntry> enqueueAll(Collection<Booking> bookings, BookingNotificationType type) {
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+        List<NotificationOutboxEntry> entries = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            entries.add(newEntry(booking, type));
+        }
+        logger.debug("Queued {} {} notifications", entries.size(), type);
+        return notificationOutboxRepository.saveAll(entries);
+    }
+
+    private NotificationOutboxEntry newEntry(Booking booking, BookingNotificationType type) {
+        NotificationOutboxEntry entry = new NotificationOutboxEntry();
+        entry.setBookingId(booking.getId());
+        entry.setType(type);
+        try {
+            entry.setPayload(objectMapper.writeValueAsString(booking));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize booking " + booking.getId(), e);
+        }
+        return entry;
+    }
+}
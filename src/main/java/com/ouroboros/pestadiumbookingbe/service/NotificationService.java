@@ -3,9 +3,12 @@ package com.ouroboros.pestadiumbookingbe.service;
 import com.ouroboros.pestadiumbookingbe.model.Booking;
 import com.ouroboros.pestadiumbookingbe.notifier.BookingNotificationHandler;
 import com.ouroboros.pestadiumbookingbe.notifier.BookingNotificationType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,20 +18,52 @@ import org.springframework.stereotype.Service;
 public class NotificationService {
     private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
     private final Map<BookingNotificationType, BookingNotificationHandler> handlerMap = new EnumMap<>(BookingNotificationType.class);
+    private final MeterRegistry meterRegistry;
 
     @Autowired
-    public NotificationService(List<BookingNotificationHandler> handlers) {
+    public NotificationService(List<BookingNotificationHandler> handlers, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
         for (BookingNotificationHandler handler : handlers) {
             handlerMap.put(handler.getType(), handler);
         }
     }
 
+    // Best effort, failures are only logged. Booking changes go through the outbox instead, see NotificationDispatcher
     public void notifyOnBookingChange(Booking booking, BookingNotificationType type) {
+        try {
+            deliver(booking, type).exceptionally(e -> {
+                logger.warn("Failed to send {} notification for booking: {}: {}", type, booking.getId(), e.getMessage());
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("Failed to send {} notification for booking: {}: {}", type, booking.getId(), e.getMessage());
+        }
+    }
+
+    // Handler failures propagate, either thrown or through the returned future, so the caller can retry
+    public CompletableFuture<Void> deliver(Booking booking, BookingNotificationType type) {
         BookingNotificationHandler handler = handlerMap.get(type);
         if (handler != null) {
-            handler.notify(booking);
-        } else {
-            logger.warn("No handler found for notification type: {}", type);
+            // Timed until the mail is accepted, not just until the handler has queued it
+            Timer.Sample sample = Timer.start(meterRegistry);
+            CompletableFuture<Void> result;
+            try {
+                result = handler.notify(booking);
+            } catch (RuntimeException e) {
+                stop(sample, type, "failed");
+                throw e;
+            }
+            return result.whenComplete((ignored, e) -> stop(sample, type, e == null ? "sent" : "failed"));
         }
+        logger.warn("No handler found for notification type: {}", type);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void stop(Timer.Sample sample, BookingNotificationType type, String outcome) {
+        sample.stop(Timer.builder("notifications.handler")
+                .description("Booking notification handlers, until the mail is sent")
+                .tag("type", type.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry));
     }
 }
@@ -1,5 +1,6 @@
 package com.ouroboros.pestadiumbookingbe.service;
 
+import com.ouroboros.pestadiumbookingbe.config.ProfileRoleCache;
 import com.ouroboros.pestadiumbookingbe.exception.BadRequestException;
 import com.ouroboros.pestadiumbookingbe.exception.RequestTimeoutException;
 import com.ouroboros.pestadiumbookingbe.exception.ServiceUnavailableException;
@@ -25,6 +26,8 @@ public class ProfileService {
 
     @Autowired
     private ProfileRepository profileRepository;
+    @Autowired
+    private ProfileRoleCache profileRoleCache;
 
     public List<Profile> getAllProfiles() {
         logger.info("Fetching all profiles");
@@ -61,6 +64,7 @@ public class ProfileService {
         try {
             profileRepository.findAndLockById(profile.getId())
                     .orElseThrow(() -> new BadRequestException("Profile not found"));
+            profileRoleCache.evict(profile.getId());  // the update may carry a new type
             return profileRepository.save(profile);
         } catch (DataAccessResourceFailureException ex) {
             logger.error("Database error updating profile with ID: {}", profile.getId(), ex);
@@ -84,6 +88,7 @@ public class ProfileService {
                     .orElseThrow(() -> new BadRequestException("Profile not found"));
             existing.setDeleted(true);
             profileRepository.save(existing);
+            profileRoleCache.evict(id);
             logger.info("Profile with ID: {} deleted successfully", id);
         } catch (DataAccessResourceFailureException ex) {
             logger.error("Database error deleting profile with ID: {}", id, ex);
@@ -115,7 +120,9 @@ public class ProfileService {
                 logger.info("Promoting profile with ID: {} to admin", id);
                 profile.setType(ProfileType.admin);
             }
-            return profileRepository.save(profile);
+            Profile saved = profileRepository.save(profile);
+            profileRoleCache.evict(id);
+            return saved;
         } catch (DataAccessResourceFailureException ex) {
             logger.error("Database error toggling admin status for profile with ID: {}", id, ex);
             throw new ServiceUnavailableException("Service unavailable due to database issues");
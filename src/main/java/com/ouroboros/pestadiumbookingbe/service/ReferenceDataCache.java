@@ -0,0 +1,296 @@
+package com.ouroboros.pestadiumbookingbe.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ouroboros.pestadiumbookingbe.model.Sport;
+import com.ouroboros.pestadiumbookingbe.model.SportHall;
+import com.ouroboros.pestadiumbookingbe.model.TimeSlot;
+import com.ouroboros.pestadiumbookingbe.repository.SportHallRepository;
+import com.ouroboros.pestadiumbookingbe.repository.SportRepository;
+import com.ouroboros.pestadiumbookingbe.repository.TimeSlotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Read-through cache for sport halls, sports and time slots. Each table is held as an immutable snapshot
+ * of detached copies, loaded in one query on first use and dropped when the table changes through JPA
+ * (see {@link ReferenceDataChangeListener}), when {@link #invalidate()} is called, or once the optional TTL
+ * has passed so rows edited directly in the database are eventually picked up.
+ * <p>
+ * Each snapshot also carries what the reference endpoints need for conditional GETs: a hash of its JSON as ETag,
+ * and the latest created/updated timestamp of its rows as Last-Modified.
+ */
+@Component
+public class ReferenceDataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+    /**
+     * Immutable view of one table; {@code version} changes every time the table is reloaded, {@code etag} only when
+     * its content does, so it is the same across reloads and instances.
+     */
+    public record Snapshot<T>(List<T> all, Map<UUID, T> byId, long version, Instant loadedAt,
+                              String etag, Instant lastModified) {}
+
+    @Autowired
+    private SportHallRepository sportHallRepository;
+    @Autowired
+    private SportRepository sportRepository;
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // 0 keeps snapshots until they are invalidated
+    @Value("${reference-data.cache.ttl:0s}")
+    private Duration ttl;
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private final Table<SportHall> sportHalls = new Table<>("sport halls",
+            () -> sportHallRepository.findAll(), SportHall::getId, ReferenceDataCache::copyOf,
+            hall -> latest(hall.getCreatedAt(), hall.getUpdatedAt()));
+    private final Table<Sport> sports = new Table<>("sports",
+            () -> sportRepository.findAll(), Sport::getId, ReferenceDataCache::copyOf,
+            sport -> latest(sport.getCreatedAt(), sport.getUpdatedAt()));
+    private final Table<TimeSlot> timeSlots = new Table<>("time slots",
+            () -> timeSlotRepository.findAll(), TimeSlot::getId, ReferenceDataCache::copyOf,
+            TimeSlot::getUpdatedAt);
+
+    public List<SportHall> getSportHalls() {
+        return sportHalls.snapshot().all();
+    }
+
+    public List<Sport> getSports() {
+        return sports.snapshot().all();
+    }
+
+    public List<TimeSlot> getTimeSlots() {
+        return timeSlots.snapshot().all();
+    }
+
+    public Optional<SportHall> findSportHall(UUID id) {
+        return sportHalls.find(id, sportHallRepository::findById);
+    }
+
+    public Optional<Sport> findSport(UUID id) {
+        return sports.find(id, sportRepository::findById);
+    }
+
+    public Optional<TimeSlot> findTimeSlot(UUID id) {
+        return timeSlots.find(id, timeSlotRepository::findById);
+    }
+
+    public Snapshot<SportHall> sportHallSnapshot() {
+        return sportHalls.snapshot();
+    }
+
+    public Snapshot<Sport> sportSnapshot() {
+        return sports.snapshot();
+    }
+
+    public Snapshot<TimeSlot> timeSlotSnapshot() {
+        return timeSlots.snapshot();
+    }
+
+    /** Drops the snapshot of the table backing the given entity type, it is reloaded on next use. */
+    public void invalidate(Class<?> type) {
+        if (SportHall.class.isAssignableFrom(type)) {
+            sportHalls.invalidate();
+        } else if (Sport.class.isAssignableFrom(type)) {
+            sports.invalidate();
+        } else if (TimeSlot.class.isAssignableFrom(type)) {
+            timeSlots.invalidate();
+        }
+    }
+
+    public void invalidate() {
+        sportHalls.invalidate();
+        sports.invalidate();
+        timeSlots.invalidate();
+    }
+
+    /** Reloads every table now instead of on next use. */
+    public void refresh() {
+        invalidate();
+        sportHalls.snapshot();
+        sports.snapshot();
+        timeSlots.snapshot();
+        logger.info("Reference data cache refreshed");
+    }
+
+    private final class Table<T> {
+        private final String name;
+        private final Supplier<List<T>> loader;
+        private final Function<T, UUID> idOf;
+        private final UnaryOperator<T> copy;
+        private final Function<T, Instant> modifiedAt;
+        // bumped on every invalidation, a load that started before it must not be installed
+        private final AtomicLong generation = new AtomicLong();
+        private volatile Snapshot<T> current;
+        // kept across invalidations, to tell whether a reload changed anything
+        private volatile Snapshot<T> previous;
+
+        Table(String name, Supplier<List<T>> loader, Function<T, UUID> idOf, UnaryOperator<T> copy,
+              Function<T, Instant> modifiedAt) {
+            this.name = name;
+            this.loader = loader;
+            this.idOf = idOf;
+            this.copy = copy;
+            this.modifiedAt = modifiedAt;
+        }
+
+        Snapshot<T> snapshot() {
+            Snapshot<T> snapshot = current;
+            if (snapshot != null && !isExpired(snapshot)) {
+                return snapshot;
+            }
+            // One reload at a time across all tables: these endpoints bypass the bulkhead, and an expiry under load
+            // would otherwise send every waiting request to the database (see DatabaseBulkhead's reserve)
+            synchronized (ReferenceDataCache.this) {
+                snapshot = current;
+                if (snapshot != null && !isExpired(snapshot)) {
+                    return snapshot;
+                }
+                return load();
+            }
+        }
+
+        Optional<T> find(UUID id, Function<UUID, Optional<T>> lookup) {
+            if (id == null) {
+                return Optional.empty();
+            }
+            T cached = snapshot().byId().get(id);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+            // a row the snapshot does not know about yet, ask the database and reload on the next read if it exists
+            Optional<T> found = lookup.apply(id).map(copy);
+            if (found.isPresent()) {
+                logger.info("Cached {} missed id {}, invalidating", name, id);
+                invalidate();
+            }
+            return found;
+        }
+
+        void invalidate() {
+            generation.incrementAndGet();
+            current = null;
+        }
+
+        private Snapshot<T> load() {
+            long startedAt = generation.get();
+            Map<UUID, T> byId = new LinkedHashMap<>();
+            for (T row : loader.get()) {
+                byId.put(idOf.apply(row), copy.apply(row));
+            }
+            List<T> all = List.copyOf(byId.values());
+            Instant loadedAt = Instant.now();
+            String etag = etagOf(all);
+            Snapshot<T> snapshot = new Snapshot<>(all, Map.copyOf(byId), versions.incrementAndGet(), loadedAt,
+                    etag, lastModifiedOf(all, etag, loadedAt));
+            synchronized (this) {
+                if (generation.get() == startedAt) {
+                    current = snapshot;
+                    previous = snapshot;
+                }
+            }
+            logger.debug("Loaded {} {}", byId.size(), name);
+            return snapshot;
+        }
+
+        private boolean isExpired(Snapshot<T> snapshot) {
+            return !ttl.isZero() && snapshot.loadedAt().plus(ttl).isBefore(Instant.now());
+        }
+
+        // The newest row timestamp. A deletion, or an edit that left updated_at alone, changes the content without
+        // moving it forward, so then the time of the reload is used instead
+        private Instant lastModifiedOf(List<T> rows, String etag, Instant loadedAt) {
+            Snapshot<T> before = previous;
+            if (before != null && before.etag().equals(etag)) {
+                return before.lastModified();
+            }
+            Instant newest = rows.stream().map(modifiedAt).filter(Objects::nonNull).max(Instant::compareTo).orElse(loadedAt);
+            if (before != null && !newest.isAfter(before.lastModified())) {
+                return loadedAt;
+            }
+            return newest;
+        }
+    }
+
+    // SHA-256 of the rows as the endpoints serialize them, so equal content gives an equal strong ETag on every instance
+    private String etagOf(List<?> rows) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(rows));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash reference data", e);
+        }
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        if (a == null || b == null) {
+            return a == null ? b : a;
+        }
+        return a.isAfter(b) ? a : b;
+    }
+
+    // Copies keep cached rows out of any persistence context, so callers can never dirty them
+
+    private static SportHall copyOf(SportHall source) {
+        SportHall copy = new SportHall();
+        copy.setId(source.getId());
+        copy.setSportId(source.getSportId());
+        copy.setName(source.getName());
+        copy.setDescription(source.getDescription());
+        copy.setLocation(source.getLocation());
+        copy.setCapacity(source.getCapacity());
+        copy.setHourlyRate(source.getHourlyRate());
+        copy.setActive(source.getActive());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+
+    private static Sport copyOf(Sport source) {
+        Sport copy = new Sport();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setDescription(source.getDescription());
+        copy.setIcon(source.getIcon());
+        copy.setActive(source.getActive());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+
+    private static TimeSlot copyOf(TimeSlot source) {
+        TimeSlot copy = new TimeSlot();
+        copy.setId(source.getId());
+        copy.setStartTime(source.getStartTime());
+        copy.setEndTime(source.getEndTime());
+        copy.setDurationMinutes(source.getDurationMinutes());
+        copy.setActive(source.getActive());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ouroboros.pestadiumbookingbe.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on the cached reference entities. The snapshot is dropped as soon as the change is made, so
+ * the writing transaction reads its own changes, and once more when that transaction completes, so a reload
+ * that raced the commit (or saw a change that was then rolled back) does not survive it.
+ */
+public class ReferenceDataChangeListener {
+
+    // Hibernate instantiates listeners through the Spring bean container, the cache is looked up lazily
+    @Autowired
+    private ObjectProvider<ReferenceDataCache> referenceDataCache;
+
+    @PrePersist
+    @PostPersist
+    @PostUpdate
+    @PreRemove
+    @PostRemove
+    void onChange(Object entity) {
+        ReferenceDataCache cache = referenceDataCache != null ? referenceDataCache.getIfAvailable() : null;
+        if (cache == null) {
+            return;
+        }
+        Class<?> type = entity.getClass();
+        cache.invalidate(type);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(type);
+                }
+            });
+        }
+    }
+}
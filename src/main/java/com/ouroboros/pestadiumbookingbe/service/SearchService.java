@@ -1,40 +1,62 @@
 package com.ouroboros.pestadiumbookingbe.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ouroboros.pestadiumbookingbe.dto.BookingListItem;
+import com.ouroboros.pestadiumbookingbe.dto.BookingPage;
 import com.ouroboros.pestadiumbookingbe.exception.BadRequestException;
 import com.ouroboros.pestadiumbookingbe.exception.ServiceUnavailableException;
 import com.ouroboros.pestadiumbookingbe.model.*;
 import com.ouroboros.pestadiumbookingbe.repository.BookingRepository;
+import com.ouroboros.pestadiumbookingbe.repository.BookingSpecifications;
 import com.ouroboros.pestadiumbookingbe.repository.ProfileRepository;
-import com.ouroboros.pestadiumbookingbe.repository.SportHallRepository;
-import com.ouroboros.pestadiumbookingbe.repository.TimeSlotRepository;
+import com.ouroboros.pestadiumbookingbe.util.BookingCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class SearchService {
 
     @Autowired
-    private SportHallRepository sportHallRepository;
-    @Autowired
-    private TimeSlotRepository timeSlotRepository;
+    private ReferenceDataCache referenceDataCache;
     @Autowired
     private BookingRepository bookingRepository;
     @Autowired
     private ProfileRepository profileRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${bookings.page.default-size:50}")
+    private int defaultPageSize;
+    @Value("${bookings.page.max-size:500}")
+    private int maxPageSize;
 
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SearchService.class);
 
     public SportHall getSportHallById(UUID id) {
         logger.info("Fetching sport hall with ID: {}", id);
         try {
-            Optional<SportHall> foundSportHall = sportHallRepository.findById(id);
+            Optional<SportHall> foundSportHall = referenceDataCache.findSportHall(id);
             return foundSportHall
                     .orElseThrow(() -> new BadRequestException("Sport hall not found"));
         } catch (DataAccessResourceFailureException ex) {
@@ -51,7 +73,7 @@ public class SearchService {
     public TimeSlot getTimeSlotById(UUID id) {
         logger.info("Fetching time slot with ID: {}", id);
         try {
-            Optional<TimeSlot> foundTimeSlot = timeSlotRepository.findById(id);
+            Optional<TimeSlot> foundTimeSlot = referenceDataCache.findTimeSlot(id);
             return foundTimeSlot
                     .orElseThrow(() -> new BadRequestException("Time slot not found"));
         } catch (DataAccessResourceFailureException ex) {
@@ -131,60 +153,126 @@ public class SearchService {
             return bookingRepository.findAll();
         }
 
-        // Get all bookings
-        List<Booking> bookings = bookingRepository.findAll();
-
-        // Apply filters conditionally
-        if (studentId.isPresent() && !studentId.get().isEmpty()) {  // skip if studentId is empty or ""
-            String partialStudentId = studentId.get().toLowerCase();
-            List<Profile> matchingProfiles = profileRepository.findAll().stream()
-                    .filter(profile -> profile.getStudentId() != null &&
-                                      profile.getStudentId().toLowerCase().contains(partialStudentId))
-                    .toList();
-
-            if (!matchingProfiles.isEmpty()) {
-                List<UUID> matchingUserIds = matchingProfiles.stream()
-                        .map(Profile::getId)
-                        .toList();
-
-                bookings = bookings.stream()
-                        .filter(b -> matchingUserIds.contains(b.getUserId()))
-                        .collect(Collectors.toList());
-            } else {
-                // If no profiles match the student ID, return an empty list
-                return List.of();
+        // One statement, joining profiles / sport_halls only for the filters that need them
+        return bookingRepository.findAll(BookingSpecifications.matching(studentId, locationOpt, profileTypeOpt, statusOpt));
+    }
+
+    public BookingPage getBookingsPage(Optional<String> cursor, Optional<Integer> size) {
+        logger.info("Fetching bookings page after cursor: {}", cursor.orElse(null));
+        try {
+            int pageSize = resolvePageSize(size);
+            Pageable limit = PageRequest.of(0, pageSize + 1);  // one extra row tells whether there is a next page
+            List<BookingListItem> rows = cursor.map(BookingCursor::decode)
+                    .map(after -> bookingRepository.findPageAfter(after.createdAt(), after.id(), limit))
+                    .orElseGet(() -> bookingRepository.findPage(limit));
+            return toPage(rows, pageSize);
+        } catch (DataAccessResourceFailureException ex) {
+            logger.error("Database error fetching bookings page", ex);
+            throw new ServiceUnavailableException("The service is temporarily unavailable due to database issues. Please try again later.");
+        } catch (BadRequestException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching bookings page: {}", e.getMessage(), e);
+            throw new RuntimeException("An error occurred while fetching bookings.");
+        }
+    }
+
+    public BookingPage getBookingsByUserIdPage(UUID userId, Optional<String> cursor, Optional<Integer> size) {
+        logger.info("Fetching bookings page for userId: {} after cursor: {}", userId, cursor.orElse(null));
+        try {
+            if (profileRepository.findById(userId).isEmpty()) {
+                logger.error("User profile not found for userId: {}", userId);
+                throw new BadRequestException("User profile not found.");
             }
+
+            int pageSize = resolvePageSize(size);
+            Pageable limit = PageRequest.of(0, pageSize + 1);
+            List<BookingListItem> rows = cursor.map(BookingCursor::decode)
+                    .map(after -> bookingRepository.findPageByUserIdAfter(userId, after.createdAt(), after.id(), limit))
+                    .orElseGet(() -> bookingRepository.findPageByUserId(userId, limit));
+            return toPage(rows, pageSize);
+        } catch (DataAccessResourceFailureException ex) {
+            logger.error("Database error fetching bookings page for userId: {}", userId, ex);
+            throw new ServiceUnavailableException("The service is temporarily unavailable due to database issues. Please try again later.");
+        } catch (BadRequestException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching bookings page for userId: {}", userId, e);
+            throw new RuntimeException("An error occurred while fetching bookings for the user.");
         }
+    }
 
-        if (statusOpt.isPresent()) {
-            Status status = statusOpt.get();
-            bookings = bookings.stream()
-                    .filter(b -> b.getStatus().equals(status))
-                    .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public BookingPage filterBookingsPage(Optional<String> studentId,
+                                         Optional<SportHallLocation> locationOpt,
+                                         Optional<ProfileType> profileTypeOpt,
+                                         Optional<Status> statusOpt,
+                                         Optional<String> cursor,
+                                         Optional<Integer> size) {
+        logger.info("Filtering bookings page after cursor: {}", cursor.orElse(null));
+        try {
+            int pageSize = resolvePageSize(size);
+            Specification<Booking> spec = BookingSpecifications.matching(studentId, locationOpt, profileTypeOpt, statusOpt);
+            if (cursor.isPresent()) {
+                spec = spec.and(BookingSpecifications.after(BookingCursor.decode(cursor.get())));
+            }
+            return toPage(findListItems(spec, pageSize + 1), pageSize);
+        } catch (DataAccessResourceFailureException ex) {
+            logger.error("Database error filtering bookings page", ex);
+            throw new ServiceUnavailableException("The service is temporarily unavailable due to database issues. Please try again later.");
+        } catch (BadRequestException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error filtering bookings page: {}", e.getMessage(), e);
+            throw new RuntimeException("An error occurred while filtering bookings.");
         }
+    }
+
+    // The filter specification with the list columns selected into BookingListItem, in keyset order
+    private List<BookingListItem> findListItems(Specification<Booking> spec, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingListItem> query = cb.createQuery(BookingListItem.class);
+        Root<Booking> root = query.from(Booking.class);
+        query.select(cb.construct(BookingListItem.class,
+                        root.get("id"), root.get("userId"), root.get("sportHallId"), root.get("sportId"),
+                        root.get("bookingDate"), root.get("timeSlotId"), root.get("status"), root.get("createdAt")))
+                .where(spec.toPredicate(root, query, cb))
+                .orderBy(cb.asc(root.get("createdAt")), cb.asc(root.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
 
-        if (locationOpt.isPresent()) {
-            SportHallLocation location = locationOpt.get();
-            bookings = bookings.stream()
-                    .filter(b ->
-                            sportHallRepository.getReferenceById(b.getSportHallId())
-                                    .getLocation()
-                                    .equals(location)
-                    )
-                    .collect(Collectors.toList());
+    // Streams every booking as one JSON document per line straight from a database cursor
+    @Transactional(readOnly = true)
+    public void exportBookings(OutputStream out) throws IOException {
+        logger.info("Exporting all bookings");
+        long exported = 0;
+        try (Stream<Booking> bookings = bookingRepository.streamAllOrderByCreatedAt()) {
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                Booking booking = iterator.next();
+                out.write(objectMapper.writeValueAsBytes(booking));
+                out.write('\n');
+                entityManager.detach(booking);  // keep the persistence context from growing with the export
+                exported++;
+            }
+            out.flush();
         }
+        logger.info("Exported {} bookings", exported);
+    }
 
-        if (profileTypeOpt.isPresent()) {
-            ProfileType profileType = profileTypeOpt.get();
-            bookings = bookings.stream()
-                    .filter(b ->
-                            profileRepository.getReferenceById(b.getUserId())
-                                    .getType()
-                                    .equals(profileType)
-                    )
-                    .collect(Collectors.toList());
+    int resolvePageSize(Optional<Integer> size) {
+        int pageSize = size.orElse(defaultPageSize);
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new BadRequestException("Page size must be between 1 and " + maxPageSize + ".");
         }
+        return pageSize;
+    }
 
-        return bookings;
+    private BookingPage toPage(List<BookingListItem> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new BookingPage(rows, null);
+        }
+        List<BookingListItem> items = rows.subList(0, pageSize);
+        return new BookingPage(items, BookingCursor.of(items.getLast()).encode());
     }
 }
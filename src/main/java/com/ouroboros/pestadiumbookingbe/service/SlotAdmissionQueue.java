@@ -0,0 +1,175 @@
+package com.ouroboros.pestadiumbookingbe.service;
+
+import com.ouroboros.pestadiumbookingbe.config.DatabaseBulkhead;
+import com.ouroboros.pestadiumbookingbe.exception.ConflictException;
+import com.ouroboros.pestadiumbookingbe.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Admission in front of booking creation, one FIFO lane per (hall, date, slot). Only the head of a lane talks to the
+ * database; everyone behind it waits on a fair in-memory lock instead of a row lock. Once the head has committed,
+ * the occupancy index knows the cell is taken, so the rest of the lane is answered with a conflict without a query.
+ * Must wrap the transactional call, so the lane is only released after the commit.
+ */
+@Component
+public class SlotAdmissionQueue implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotAdmissionQueue.class);
+
+    public record Stats(int lanes, int queued, long admitted, long rejected, long shed, double averageWaitMillis, double maxWaitMillis) {}
+
+    private static final class Lane {
+        final ReentrantLock lock = new ReentrantLock(true);
+        // requests inside the lane, the one being processed included; guarded by the lanes map
+        int members;
+    }
+
+    @Autowired
+    private SlotOccupancyIndex slotOccupancyIndex;
+    @Autowired
+    private DatabaseBulkhead databaseBulkhead;
+
+    @Value("${bookings.admission.enabled:true}")
+    private boolean enabled;
+    @Value("${bookings.admission.max-depth:200}")
+    private int maxDepth;
+    @Value("${bookings.admission.max-wait:3s}")
+    private Duration maxWait;
+
+    private final Map<SlotOccupancyIndex.SlotKey, Lane> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public <T> T admit(SlotOccupancyIndex.SlotKey key, Supplier<T> work) {
+        if (!enabled || key.sportHallId() == null || key.bookingDate() == null || key.timeSlotId() == null) {
+            return withPermit(work);  // left to the service's own validation
+        }
+        if (isTaken(key)) {
+            throw lost(key);
+        }
+
+        Lane lane = join(key);
+        if (lane == null) {
+            shed.incrementAndGet();
+            logger.warn("Admission lane full for sportHallId: {}, date: {}, timeSlotId: {}", key.sportHallId(), key.bookingDate(), key.timeSlotId());
+            throw new ServiceUnavailableException("Too many requests for this slot. Please try again shortly.");
+        }
+        long start = System.nanoTime();
+        queued.incrementAndGet();
+        boolean locked = false;
+        try {
+            try {
+                locked = lane.lock.tryLock(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                queued.decrementAndGet();
+            }
+            if (!locked) {
+                shed.incrementAndGet();
+                throw new ServiceUnavailableException("Too many requests for this slot. Please try again shortly.");
+            }
+            recordWait(System.nanoTime() - start);
+
+            // The request ahead of us may have taken the cell while we waited
+            if (isTaken(key)) {
+                throw lost(key);
+            }
+            admitted.incrementAndGet();
+            return withPermit(work);
+        } finally {
+            if (locked) {
+                lane.lock.unlock();
+            }
+            leave(key);
+        }
+    }
+
+    // A miss is free; a hit may be another instance's cancelled booking and is confirmed under a database permit
+    private boolean isTaken(SlotOccupancyIndex.SlotKey key) {
+        return slotOccupancyIndex.isOccupied(key) && withPermit(() -> slotOccupancyIndex.confirmOccupied(key));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bookings.admission.lanes", lanes, Map::size)
+                .description("Slots with requests in line")
+                .register(registry);
+        Gauge.builder("bookings.admission.queued", queued, AtomicInteger::get)
+                .description("Requests waiting behind the head of their lane")
+                .register(registry);
+        FunctionCounter.builder("bookings.admission.requests", admitted, AtomicLong::get)
+                .tag("outcome", "admitted").register(registry);
+        FunctionCounter.builder("bookings.admission.requests", rejected, AtomicLong::get)
+                .tag("outcome", "conflict").register(registry);
+        FunctionCounter.builder("bookings.admission.requests", shed, AtomicLong::get)
+                .tag("outcome", "shed").register(registry);
+    }
+
+    public Stats stats() {
+        long count = waits.get();
+        return new Stats(lanes.size(), queued.get(), admitted.get(), rejected.get(), shed.get(),
+                count == 0 ? 0 : totalWaitNanos.get() / 1e6 / count, maxWaitNanos.get() / 1e6);
+    }
+
+    private <T> T withPermit(Supplier<T> work) {
+        // Taken only once at the head of the lane, so waiting requests do not hold database permits
+        databaseBulkhead.acquire("create-booking");
+        try {
+            return work.get();
+        } finally {
+            databaseBulkhead.release();
+        }
+    }
+
+    private Lane join(SlotOccupancyIndex.SlotKey key) {
+        Lane[] joined = new Lane[1];
+        lanes.compute(key, (k, lane) -> {
+            Lane current = lane != null ? lane : new Lane();
+            if (current.members < maxDepth) {
+                current.members++;
+                joined[0] = current;
+            }
+            return current;
+        });
+        return joined[0];
+    }
+
+    private void leave(SlotOccupancyIndex.SlotKey key) {
+        lanes.computeIfPresent(key, (k, lane) -> --lane.members == 0 ? null : lane);
+    }
+
+    private ConflictException lost(SlotOccupancyIndex.SlotKey key) {
+        rejected.incrementAndGet();
+        logger.warn("A booking already exists (admission) for sportHallId: {}, date: {}, timeSlotId: {}", key.sportHallId(), key.bookingDate(), key.timeSlotId());
+        return new ConflictException("A booking already exists for the given combination.");
+    }
+
+    private void recordWait(long nanos) {
+        waits.incrementAndGet();
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+}
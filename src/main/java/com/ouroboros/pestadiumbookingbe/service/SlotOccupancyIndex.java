@@ -0,0 +1,267 @@
+package com.ouroboros.pestadiumbookingbe.service;
+
+import com.ouroboros.pestadiumbookingbe.model.Booking;
+import com.ouroboros.pestadiumbookingbe.model.Status;
+import com.ouroboros.pestadiumbookingbe.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * In-memory view of which (sport hall, date, time slot) cells hold an active (pending/confirmed) booking from today
+ * on, and of how many active bookings each user holds per day. It is built from the database before the web server
+ * starts taking requests, kept up to date from this instance's commits and rebuilt periodically to pick up what other
+ * instances committed. Between rebuilds it does not see other instances' commits, so neither a hit nor a miss is
+ * trusted on its own: a request is only rejected once {@link #confirmOccupied} has checked the hit against the
+ * database, and a miss still goes through the conditional insert (or the unique index). Until the first build has
+ * succeeded {@link #isReady()} is false.
+ */
+@Component
+public class SlotOccupancyIndex implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotOccupancyIndex.class);
+    private static final List<Status> ACTIVE_STATUSES = List.of(Status.pending, Status.confirmed);
+    private static final BitSet EMPTY = new BitSet();
+
+    public record SlotKey(UUID sportHallId, LocalDate bookingDate, UUID timeSlotId) {
+        public static SlotKey of(Booking booking) {
+            return new SlotKey(booking.getSportHallId(), booking.getBookingDate(), booking.getTimeSlotId());
+        }
+    }
+
+    private record HallDay(UUID sportHallId, LocalDate bookingDate) {}
+
+    private record UserDay(UUID userId, LocalDate bookingDate) {}
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    // time slot id -> bit position, assigned on first sight and never reused; shared by every rebuild
+    private final Map<UUID, Integer> slotOrdinals = new ConcurrentHashMap<>();
+    private final AtomicInteger nextOrdinal = new AtomicInteger();
+
+    // Replaced as a whole by a rebuild; readers go through the volatile field and never lock
+    private volatile State state = new State();
+    private volatile boolean ready;
+    // Changes committed while a rebuild's query runs, replayed on top of its result; guarded by this
+    private List<Consumer<State>> changesDuringRebuild;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        warmUp();
+    }
+
+    // Also retries a warm-up that failed at startup
+    @Scheduled(fixedDelayString = "${bookings.occupancy.reconcile-interval-ms:300000}",
+            initialDelayString = "${bookings.occupancy.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        warmUp();
+    }
+
+    /** (Re)builds the index from the committed active bookings. */
+    public void warmUp() {
+        synchronized (this) {
+            if (changesDuringRebuild != null) {
+                return;  // a rebuild is already running
+            }
+            changesDuringRebuild = new ArrayList<>();
+        }
+        State rebuilt = new State();
+        try {
+            List<Booking> active = bookingRepository.findByStatusInAndBookingDateGreaterThanEqual(ACTIVE_STATUSES, LocalDate.now());
+            for (Booking booking : active) {
+                rebuilt.occupy(SlotKey.of(booking), booking.getId());
+                rebuilt.count(booking.getId(), new UserDay(booking.getUserId(), booking.getBookingDate()));
+            }
+            synchronized (this) {
+                // a release that committed while the query ran may have been read as still active; replaying the
+                // changes in commit order drops such rows again
+                changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+                state = rebuilt;
+                ready = true;
+            }
+            logger.info("Slot occupancy index built from {} active bookings", active.size());
+        } catch (Exception e) {
+            logger.warn("Could not build slot occupancy index: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                changesDuringRebuild = null;
+            }
+        }
+    }
+
+    /** Whether the index has been built from the database; before that a miss says nothing. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Whether a miss for the date means the cell is free: the index is built and the date not in the past. */
+    public boolean covers(LocalDate date) {
+        return ready && !date.isBefore(LocalDate.now());
+    }
+
+    public boolean isOccupied(UUID sportHallId, LocalDate date, UUID timeSlotId) {
+        return isOccupied(new SlotKey(sportHallId, date, timeSlotId));
+    }
+
+    public boolean isOccupied(SlotKey key) {
+        return state.occupiedBy.containsKey(key);
+    }
+
+    /**
+     * Whether the cell holds an active booking, as far as the database says. Only a hit costs a query: an indexed
+     * existence check, unlocked, as the caller's insert or locked query still decides. A hit the database no longer
+     * backs (typically a cancellation committed by another instance) is dropped from the index.
+     */
+    public boolean confirmOccupied(SlotKey key) {
+        UUID holder = state.occupiedBy.get(key);
+        if (holder == null) {
+            return false;
+        }
+        if (bookingRepository.existsBySportHallIdAndBookingDateAndTimeSlotIdAndStatusIn(
+                key.sportHallId(), key.bookingDate(), key.timeSlotId(), ACTIVE_STATUSES)) {
+            return true;
+        }
+        logger.info("Dropping stale occupancy of booking {} for {}", holder, key);
+        apply(state -> {
+            state.release(key, holder);
+            state.uncount(holder);
+        });
+        return false;
+    }
+
+    /** Active bookings the user holds on the date, as far as this instance has seen them commit. */
+    public int activeBookings(UUID userId, LocalDate date) {
+        return state.activePerUserDay.getOrDefault(new UserDay(userId, date), 0);
+    }
+
+    /**
+     * Records the booking as active in its cell and for its user and date. Must only be called once the transaction
+     * holding the booking has committed; calls for one booking arrive in commit order, as its row is locked.
+     */
+    public void occupy(Booking booking) {
+        SlotKey key = SlotKey.of(booking);
+        UUID bookingId = booking.getId();
+        UserDay userDay = new UserDay(booking.getUserId(), booking.getBookingDate());
+        apply(state -> {
+            state.occupy(key, bookingId);
+            state.count(bookingId, userDay);
+        });
+    }
+
+    /** Undoes {@link #occupy(Booking)} once the cancellation or deletion has committed. */
+    public void release(Booking booking) {
+        SlotKey key = SlotKey.of(booking);
+        UUID bookingId = booking.getId();
+        apply(state -> {
+            state.release(key, bookingId);
+            state.uncount(bookingId);
+        });
+    }
+
+    /** Cell only; must only be called once the transaction holding the booking has committed. */
+    public void occupy(SlotKey key, UUID bookingId) {
+        apply(state -> state.occupy(key, bookingId));
+    }
+
+    /** Frees the cell, unless another booking has taken it over in the meantime. */
+    public void release(SlotKey key, UUID bookingId) {
+        apply(state -> state.release(key, bookingId));
+    }
+
+    /** Bit position of a time slot in the bitsets returned by {@link #occupiedSlots}. */
+    public int slotOrdinal(UUID timeSlotId) {
+        return slotOrdinals.computeIfAbsent(timeSlotId, id -> nextOrdinal.getAndIncrement());
+    }
+
+    /** Read-only snapshot of the occupied slots of a hall on a day, indexed by {@link #slotOrdinal}. */
+    public BitSet occupiedSlots(UUID sportHallId, LocalDate date) {
+        BitSet bits = state.occupiedSlots.get(new HallDay(sportHallId, date));
+        return bits != null ? bits : EMPTY;
+    }
+
+    private synchronized void apply(Consumer<State> change) {
+        state.pruneIfNewDay();
+        change.accept(state);
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(change);
+        }
+    }
+
+    private class State {
+        // cell -> id of the booking holding it
+        final Map<SlotKey, UUID> occupiedBy = new ConcurrentHashMap<>();
+        // (hall, date) -> occupied slot ordinals; bitsets are copy-on-write so readers never see a partial update
+        final Map<HallDay, BitSet> occupiedSlots = new ConcurrentHashMap<>();
+        // booking id -> the (user, date) it counts towards; a booking moved to another user or date is counted once
+        final Map<UUID, UserDay> userDayOf = new ConcurrentHashMap<>();
+        // (user, date) -> active bookings, for the one booking per day quota
+        final Map<UserDay, Integer> activePerUserDay = new ConcurrentHashMap<>();
+        LocalDate lastPrunedOn = LocalDate.now();
+
+        void occupy(SlotKey key, UUID bookingId) {
+            occupiedBy.put(key, bookingId);
+            setSlotBit(key, true);
+        }
+
+        void release(SlotKey key, UUID bookingId) {
+            if (occupiedBy.remove(key, bookingId)) {
+                setSlotBit(key, false);
+            }
+        }
+
+        void count(UUID bookingId, UserDay userDay) {
+            UserDay previous = userDayOf.put(bookingId, userDay);
+            if (!userDay.equals(previous)) {
+                activePerUserDay.merge(userDay, 1, Integer::sum);
+                if (previous != null) {
+                    decrement(previous);
+                }
+            }
+        }
+
+        void uncount(UUID bookingId) {
+            UserDay previous = userDayOf.remove(bookingId);
+            if (previous != null) {
+                decrement(previous);
+            }
+        }
+
+        private void decrement(UserDay userDay) {
+            activePerUserDay.computeIfPresent(userDay, (day, count) -> count > 1 ? count - 1 : null);
+        }
+
+        private void setSlotBit(SlotKey key, boolean occupied) {
+            int ordinal = slotOrdinal(key.timeSlotId());
+            occupiedSlots.compute(new HallDay(key.sportHallId(), key.bookingDate()), (hallDay, bits) -> {
+                BitSet copy = bits != null ? (BitSet) bits.clone() : new BitSet();
+                copy.set(ordinal, occupied);
+                return copy.isEmpty() ? null : copy;
+            });
+        }
+
+        void pruneIfNewDay() {
+            LocalDate today = LocalDate.now();
+            if (lastPrunedOn.isBefore(today)) {
+                lastPrunedOn = today;
+                occupiedBy.keySet().removeIf(key -> key.bookingDate() != null && key.bookingDate().isBefore(today));
+                occupiedSlots.keySet().removeIf(hallDay -> hallDay.bookingDate() != null && hallDay.bookingDate().isBefore(today));
+                userDayOf.values().removeIf(userDay -> userDay.bookingDate() != null && userDay.bookingDate().isBefore(today));
+                activePerUserDay.keySet().removeIf(userDay -> userDay.bookingDate() != null && userDay.bookingDate().isBefore(today));
+            }
+        }
+    }
+}
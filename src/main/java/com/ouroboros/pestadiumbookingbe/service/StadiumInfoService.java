@@ -4,9 +4,6 @@ import com.ouroboros.pestadiumbookingbe.exception.ServiceUnavailableException;
 import com.ouroboros.pestadiumbookingbe.model.SportHall;
 import com.ouroboros.pestadiumbookingbe.model.Sport;
 import com.ouroboros.pestadiumbookingbe.model.TimeSlot;
-import com.ouroboros.pestadiumbookingbe.repository.SportHallRepository;
-import com.ouroboros.pestadiumbookingbe.repository.SportRepository;
-import com.ouroboros.pestadiumbookingbe.repository.TimeSlotRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,19 +16,20 @@ import java.util.List;
 public class StadiumInfoService {
 
     @Autowired
-    private SportHallRepository sportHallRepository;
-    @Autowired
-    private SportRepository sportRepository;
-    @Autowired
-    private TimeSlotRepository timeSlotRepository;
+    private ReferenceDataCache referenceDataCache;
 
     private static final Logger logger = LoggerFactory.getLogger(StadiumInfoService.class);
 
     public List<SportHall> getAllSportHalls() {
+        return getSportHallSnapshot().all();
+    }
+
+    // The list together with its ETag and Last-Modified, taken from one snapshot so they always match
+    public ReferenceDataCache.Snapshot<SportHall> getSportHallSnapshot() {
         logger.info("getAllSportHalls");
         try {
-            List<SportHall> sportHalls = sportHallRepository.findAll();
-            if (sportHalls.isEmpty()) {
+            ReferenceDataCache.Snapshot<SportHall> sportHalls = referenceDataCache.sportHallSnapshot();
+            if (sportHalls.all().isEmpty()) {
                 logger.warn("No sport halls found");
                 throw new ServiceUnavailableException("No sport halls found");
             }
@@ -48,10 +46,14 @@ public class StadiumInfoService {
     }
 
     public List<Sport> getAllSports() {
+        return getSportSnapshot().all();
+    }
+
+    public ReferenceDataCache.Snapshot<Sport> getSportSnapshot() {
         logger.info("Fetching all sports from the repository");
         try {
-            List<Sport> sports = sportRepository.findAll();
-            if (sports.isEmpty()) {
+            ReferenceDataCache.Snapshot<Sport> sports = referenceDataCache.sportSnapshot();
+            if (sports.all().isEmpty()) {
                 logger.warn("No sports found");
                 throw new ServiceUnavailableException("No sports found");
             }
@@ -68,10 +70,14 @@ public class StadiumInfoService {
     }
 
     public List<TimeSlot> getAllTimeSlots() {
+        return getTimeSlotSnapshot().all();
+    }
+
+    public ReferenceDataCache.Snapshot<TimeSlot> getTimeSlotSnapshot() {
         logger.info("Fetching all time slots");
         try {
-            List<TimeSlot> timeSlots = timeSlotRepository.findAll();
-            if (timeSlots.isEmpty()) {
+            ReferenceDataCache.Snapshot<TimeSlot> timeSlots = referenceDataCache.timeSlotSnapshot();
+            if (timeSlots.all().isEmpty()) {
                 logger.warn("No time slots found");
                 throw new ServiceUnavailableException("No time slots found");
             }
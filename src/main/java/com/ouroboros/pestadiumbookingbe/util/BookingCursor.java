@@ -0,0 +1,32 @@
+package com.ouroboros.pestadiumbookingbe.util;
+
+import com.ouroboros.pestadiumbookingbe.exception.BadRequestException;
+import com.ouroboros.pestadiumbookingbe.dto.BookingListItem;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+// Opaque keyset position over (created_at, id), handed to clients as a URL-safe string
+public record BookingCursor(OffsetDateTime createdAt, UUID id) {
+
+    public static BookingCursor of(BookingListItem item) {
+        return new BookingCursor(item.createdAt(), item.id());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookingCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new BookingCursor(OffsetDateTime.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor.");
+        }
+    }
+}
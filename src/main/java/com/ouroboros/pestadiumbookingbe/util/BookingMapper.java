@@ -6,21 +6,23 @@ import com.ouroboros.pestadiumbookingbe.model.Profile;
 import com.ouroboros.pestadiumbookingbe.model.TimeSlot;
 import com.ouroboros.pestadiumbookingbe.model.SportHall;
 import com.ouroboros.pestadiumbookingbe.repository.ProfileRepository;
-import com.ouroboros.pestadiumbookingbe.repository.SportHallRepository;
-import com.ouroboros.pestadiumbookingbe.repository.TimeSlotRepository;
+import com.ouroboros.pestadiumbookingbe.service.ReferenceDataCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Function;
+
 @Component
 public class BookingMapper {
     @Autowired
-    private TimeSlotRepository timeSlotRepository;
+    private ReferenceDataCache referenceDataCache;
     @Autowired
     private ProfileRepository profileRepository;
-    @Autowired
-    private SportHallRepository sportHallRepository;
 
     private static final Logger logger = LoggerFactory.getLogger(BookingMapper.class);
 
@@ -29,27 +31,105 @@ public class BookingMapper {
             logger.warn("Booking is null, returning empty BookingSummary");
             return new BookingSummary("", null, null, null, "", "", "");
         }
+        return toBookingSummaries(List.of(booking)).getFirst();
+    }
+
+    /**
+     * Summaries in the order of {@code bookings}. Halls and time slots come from the reference data cache and all
+     * referenced profiles are loaded with a single query, so the cost follows the number of distinct users rather
+     * than the number of bookings.
+     */
+    public List<BookingSummary> toBookingSummaries(Collection<Booking> bookings) {
+        if (bookings == null || bookings.isEmpty()) {
+            return List.of();
+        }
+
+        Set<UUID> profileIds = new HashSet<>();
+        for (Booking booking : bookings) {
+            if (booking.getUserId() != null) {
+                profileIds.add(booking.getUserId());
+            }
+            if (booking.getCanceledBy() != null) {
+                profileIds.add(booking.getCanceledBy());
+            }
+        }
+
+        // Each source is loaded on its own, so one failing does not blank out what the others resolved
+        Map<UUID, TimeSlot> timeSlots = Map.of();
+        Map<UUID, SportHall> sportHalls = Map.of();
+        Map<UUID, Profile> profiles = new HashMap<>();
+        try {
+            timeSlots = referenceDataCache.timeSlotSnapshot().byId();
+        } catch (Exception e) {
+            logger.error("Error fetching time slots for {} bookings from BookingMapper class", bookings.size(), e);
+        }
+        try {
+            sportHalls = referenceDataCache.sportHallSnapshot().byId();
+        } catch (Exception e) {
+            logger.error("Error fetching sport halls for {} bookings from BookingMapper class", bookings.size(), e);
+        }
+        if (!profileIds.isEmpty()) {
+            try {
+                for (Profile profile : profileRepository.findAllById(profileIds)) {
+                    profiles.put(profile.getId(), profile);
+                }
+            } catch (Exception e) {
+                logger.error("Error fetching {} profiles for {} bookings from BookingMapper class, email addresses are left empty",
+                        profileIds.size(), bookings.size(), e);
+            }
+        }
 
-        TimeSlot timeSlot = null;
-        SportHall sportHall = null;
-        Profile userProfile = null;
-        Profile canceledByProfile = null;
+        List<BookingSummary> summaries = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            TimeSlot timeSlot = resolve(booking.getTimeSlotId(), timeSlots, referenceDataCache::findTimeSlot);
+            SportHall sportHall = resolve(booking.getSportHallId(), sportHalls, referenceDataCache::findSportHall);
+            Profile userProfile = booking.getUserId() != null ? profiles.get(booking.getUserId()) : null;
+            Profile canceledByProfile = booking.getCanceledBy() != null ? profiles.get(booking.getCanceledBy()) : null;
+
+            BookingSummary bookingSummary = new BookingSummary(
+                    userProfile != null ? userProfile.getEmail() : "",
+                    booking.getBookingDate(),
+                    timeSlot != null ? timeSlot.getStartTime() : null,
+                    timeSlot != null ? timeSlot.getEndTime() : null,
+                    sportHall != null ? sportHall.getName() : null,
+                    booking.getPurpose(),
+                    canceledByProfile != null ? canceledByProfile.getEmail() : ""
+            );
+            bookingSummary.setBookingId(booking.getId());
+            bookingSummary.setSequence(sequenceOf(booking));
+            summaries.add(bookingSummary);
+        }
+        return summaries;
+    }
+
+    // Seconds from creation to the latest change (an update or the cancellation), so it grows with every change as
+    // calendar clients require of SEQUENCE, and stays within its 32 bits for decades
+    static int sequenceOf(Booking booking) {
+        OffsetDateTime changedAt = booking.getUpdatedAt();
+        if (booking.getCanceledAt() != null && (changedAt == null || booking.getCanceledAt().isAfter(changedAt))) {
+            changedAt = booking.getCanceledAt();
+        }
+        if (booking.getCreatedAt() == null || changedAt == null) {
+            return 0;
+        }
+        long seconds = Duration.between(booking.getCreatedAt(), changedAt).getSeconds();
+        return (int) Math.min(Math.max(seconds, 0), Integer.MAX_VALUE);
+    }
+
+    // Ids missing from the snapshot (added behind the cache's back) still go through the cache's read-through lookup
+    private static <T> T resolve(UUID id, Map<UUID, T> snapshot, Function<UUID, Optional<T>> lookup) {
+        if (id == null) {
+            return null;
+        }
+        T value = snapshot.get(id);
+        if (value != null) {
+            return value;
+        }
         try {
-            timeSlot = booking.getTimeSlotId() != null ? timeSlotRepository.findById(booking.getTimeSlotId()).orElse(null) : null;
-            sportHall = booking.getSportHallId() != null ? sportHallRepository.findById(booking.getSportHallId()).orElse(null) : null;
-            userProfile = booking.getUserId() != null ? profileRepository.findById(booking.getUserId()).orElse(null) : null;
-            canceledByProfile = booking.getCanceledBy() != null ? profileRepository.findById(booking.getCanceledBy()).orElse(null) : null;
+            return lookup.apply(id).orElse(null);
         } catch (Exception e) {
-            logger.error("Error fetching related entities for booking ID: {} from BookingMapper class", booking.getId(), e);
-        }
-        return new BookingSummary(
-                userProfile != null ? userProfile.getEmail() : "",
-                booking.getBookingDate(),
-                timeSlot != null ? timeSlot.getStartTime() : null,
-                timeSlot != null ? timeSlot.getEndTime() : null,
-                sportHall != null ? sportHall.getName() : null,
-                booking.getPurpose(),
-                canceledByProfile != null ? canceledByProfile.getEmail() : ""
-        );
+            logger.error("Error fetching related entity {} from BookingMapper class", id, e);
+            return null;
+        }
     }
 }
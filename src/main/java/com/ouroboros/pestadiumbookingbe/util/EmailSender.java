@@ -1,19 +1,62 @@
 package com.ouroboros.pestadiumbookingbe.util;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mailgun.api.v3.MailgunMessagesApi;
-import com.mailgun.client.MailgunClient;
+import com.mailgun.form.FormEncoder;
 import com.mailgun.model.message.Message;
-import com.mailgun.model.message.MessageResponse;
+import com.mailgun.util.Constants;
+import com.mailgun.util.MailgunApiUtil;
+import com.mailgun.util.ObjectMapperUtil;
+import feign.Feign;
+import feign.FeignException;
+import feign.Request;
+import feign.RetryableException;
+import feign.Retryer;
+import feign.auth.BasicAuthRequestInterceptor;
+import feign.form.FormData;
+import feign.hc5.ApacheHttp5Client;
+import feign.jackson.JacksonDecoder;
+import feign.jackson.JacksonEncoder;
+import feign.querymap.FieldQueryMapEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.io.CloseMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
-import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Sends mail through one shared Mailgun client on a pooled HTTP client. Sends run on a fixed pool of the same size as
+ * the connection pool, so every send finds a kept-alive connection; transient failures are retried from a scheduler
+ * instead of a sleeping thread.
+ * With a batch window configured, mails to the same recipient within the window go out as one message.
+ */
 @Component
 public class EmailSender {
 
@@ -26,76 +69,319 @@ public class EmailSender {
     @Value("${mailgun.from.email}")
     private String emailFrom;
 
+    // Empty for Mailgun's own endpoint; pointed at a local stand-in by load tests
+    @Value("${mailgun.base-url:}")
+    private String baseUrl;
+
+    @Value("${mailgun.connect-timeout:5s}")
+    private Duration connectTimeout;
+    @Value("${mailgun.read-timeout:30s}")
+    private Duration readTimeout;
+    @Value("${mailgun.pool-size:8}")
+    private int poolSize;
+    @Value("${mailgun.retry.max-attempts:3}")
+    private int maxAttempts;
+    @Value("${mailgun.retry.initial-backoff:2s}")
+    private Duration initialBackoff;
+    // 0 sends every mail on its own
+    @Value("${mailgun.batch.window:0s}")
+    private Duration batchWindow;
+    @Value("${mailgun.batch.max-size:20}")
+    private int batchMaxSize;
+
+    // Replaced by the application's registry; the global one only matters when constructed by hand
+    @Autowired
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
     private static final Logger logger = LoggerFactory.getLogger(EmailSender.class);
+    private static final String ICS_CONTENT_TYPE = "text/calendar";
+    private static final String ICS_FILE_NAME = "booking.ics";
+    private static final String BEGIN_EVENT = "BEGIN:VEVENT";
+    private static final String END_EVENT = "END:VEVENT";
+
+    private CloseableHttpClient httpClient;
+    private MailgunMessagesApi mailgunMessagesApi;
+    private ExecutorService sendPool;
+    private ScheduledExecutorService scheduler;
+    // recipient -> mails waiting for the batch window to close
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+
+    record PendingEmail(String subject, String text, byte[] icsBytes, CompletableFuture<Void> result) {}
+
+    private static final class Batch {
+        final List<PendingEmail> emails = new ArrayList<>();
+        boolean closed;
+    }
+
+    @PostConstruct
+    void init() {
+        httpClient = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(poolSize)
+                        .setMaxConnPerRoute(poolSize)  // every connection goes to the one Mailgun host
+                        .build())
+                .disableAutomaticRetries()  // retried below without blocking a thread
+                .build();
+        // Built like MailgunClient does, which offers no way to plug in a synchronous client
+        ObjectMapper objectMapper = ObjectMapperUtil.getObjectMapper();
+        String url = baseUrl == null || baseUrl.isBlank() ? Constants.DEFAULT_BASE_URL_US_REGION : baseUrl;
+        mailgunMessagesApi = Feign.builder()
+                .client(new ApacheHttp5Client(httpClient))
+                .encoder(new FormEncoder(new JacksonEncoder(objectMapper)))
+                .decoder(new JacksonDecoder(objectMapper))
+                .queryMapEncoder(new FieldQueryMapEncoder())
+                .requestInterceptor(new BasicAuthRequestInterceptor("api", apiKey))
+                .options(new Request.Options(connectTimeout.toMillis(), TimeUnit.MILLISECONDS,
+                        readTimeout.toMillis(), TimeUnit.MILLISECONDS, true))
+                .retryer(Retryer.NEVER_RETRY)
+                .target(MailgunMessagesApi.class, MailgunApiUtil.getFullUrl(MailgunMessagesApi.class, url));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        sendPool = Executors.newFixedThreadPool(poolSize, r -> daemon(r, "mailgun-send-" + threadCount.incrementAndGet()));
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "mailgun-scheduler"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        sendPool.shutdown();
+        httpClient.close(CloseMode.GRACEFUL);
+    }
 
     public void sendEmail(String to, String subject, String text) {
         logger.info("Sending email to {}", to);
         try {
-            MailgunMessagesApi mailgunMessagesApi = MailgunClient.config(apiKey)
-                    .createApi(MailgunMessagesApi.class);
-            Message message = Message.builder()
-                    .from(emailFrom)
-                    .to(to)
-                    .subject(subject)
-                    .text(text)
-                    .build();
-
-            // Send the email asynchronously
-            CompletableFuture<MessageResponse> response = mailgunMessagesApi.sendMessageAsync(domain, message);
-            response.exceptionally(e -> {
-                logger.error("Retrying email due to failure: {}", e.getMessage());
-                try {
-                    TimeUnit.SECONDS.sleep(2); // Retry after 2 seconds
-                    return mailgunMessagesApi.sendMessage(domain, message);
-                } catch (Exception retryException) {
-                    logger.error("Retry failed: {}", retryException.getMessage());
-                    throw new RuntimeException("Failed to send email after retry", retryException);
-                }
-            });
-
+            submit(to, subject, text, null, false).join();
             logger.info("Email ({}) sent successfully to {}", text, to);
-        } catch (Exception e) {
-            logger.error("Failed to send email ({}) to {}: {}", text, to, e.getMessage());
-            throw new RuntimeException("Failed to send email", e);
+        } catch (CompletionException e) {
+            logger.error("Failed to send email ({}) to {}: {}", text, to, e.getCause().getMessage());
+            throw new RuntimeException("Failed to send email", e.getCause());
         }
     }
 
     public void sendEmailWithIcsAttachment(String to, String subject, String text, byte[] icsBytes) {
         logger.info("Sending email with Ics attachment to {}", to);
         try {
-            MailgunMessagesApi mailgunMessagesApi = MailgunClient.config(apiKey)
-                    .createApi(MailgunMessagesApi.class);
+            submit(to, subject, text, icsBytes, false).join();
+            logger.info("Email with .ics attachment sent to {}", to);
+        } catch (CompletionException e) {
+            logger.error("Failed to send email with attachment to {}: {}", to, e.getCause().getMessage());
+            throw new RuntimeException("Failed to send email with attachment", e.getCause());
+        }
+    }
 
-            // Write the ICS content to a temporary file
-            File tempFile = File.createTempFile("booking", ".ics");
-            try (FileOutputStream fos = new FileOutputStream(tempFile)) {
-                fos.write(icsBytes);
-            }
+    /**
+     * Completes once Mailgun has accepted the mail, or exceptionally after the last retry. {@code icsBytes} may be null.
+     * Unlike the blocking methods this one goes through the batch window.
+     */
+    public CompletableFuture<Void> sendEmailAsync(String to, String subject, String text, byte[] icsBytes) {
+        return submit(to, subject, text, icsBytes, true);
+    }
 
-            Message message = Message.builder()
-                    .from(emailFrom)
-                    .to(to)
-                    .subject(subject)
-                    .text(text)
-                    .attachment(tempFile)
-                    .build();
-
-            CompletableFuture<MessageResponse> response = mailgunMessagesApi.sendMessageAsync(domain, message);
-            response.exceptionally(e -> {
-                logger.error("Retrying email with attachment due to failure: {}", e.getMessage());
-                try {
-                    TimeUnit.SECONDS.sleep(2); // Retry after 2 seconds
-                    return mailgunMessagesApi.sendMessage(domain, message);
-                } catch (Exception retryException) {
-                    logger.error("Retry failed: {}", retryException.getMessage());
-                    throw new RuntimeException("Failed to send email with attachment after retry", retryException);
-                }
+    private CompletableFuture<Void> submit(String to, String subject, String text, byte[] icsBytes, boolean batched) {
+        PendingEmail email = new PendingEmail(subject, text, icsBytes, new CompletableFuture<>());
+        if (!batched || batchWindow.isZero() || to == null) {
+            send(to, List.of(email));
+        } else {
+            addToBatch(to, email);
+        }
+        return email.result();
+    }
+
+    private void addToBatch(String to, PendingEmail email) {
+        while (true) {
+            Batch batch = batches.computeIfAbsent(to, recipient -> {
+                Batch created = new Batch();
+                scheduler.schedule(() -> flush(recipient, created), batchWindow.toMillis(), TimeUnit.MILLISECONDS);
+                return created;
             });
+            synchronized (batch) {
+                if (batch.closed) {
+                    continue;  // flushed in the meantime, start a new one
+                }
+                batch.emails.add(email);
+                if (batch.emails.size() >= batchMaxSize) {
+                    sendPool.execute(() -> flush(to, batch));
+                }
+                return;
+            }
+        }
+    }
 
-            logger.info("Email with .ics attachment sent to {}", to);
+    private void flush(String to, Batch batch) {
+        batches.remove(to, batch);
+        List<PendingEmail> emails;
+        synchronized (batch) {
+            if (batch.closed) {
+                return;
+            }
+            batch.closed = true;
+            emails = List.copyOf(batch.emails);
+        }
+        send(to, emails);
+    }
+
+    private void send(String to, List<PendingEmail> emails) {
+        Message message;
+        try {
+            message = buildMessage(to, emails);
         } catch (Exception e) {
-            logger.error("Failed to send email with attachment to {}: {}", to, e.getMessage());
-            throw new RuntimeException("Failed to send email with attachment", e);
+            emails.forEach(email -> email.result().completeExceptionally(e));
+            return;
+        }
+        attempt(to, message, emails, 1);
+    }
+
+    private void attempt(String to, Message message, List<PendingEmail> emails, int attempt) {
+        sendPool.execute(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                mailgunMessagesApi.sendMessage(domain, message);
+                stop(sample, "sent");
+                emails.forEach(email -> email.result().complete(null));
+            } catch (Exception e) {
+                if (attempt < maxAttempts && isTransient(e)) {
+                    stop(sample, "retried");
+                    long delay = initialBackoff.toMillis() << (attempt - 1);
+                    logger.warn("Sending email to {} failed (attempt {}), retrying in {} ms: {}", to, attempt, delay, e.getMessage());
+                    scheduler.schedule(() -> attempt(to, message, emails, attempt + 1), delay, TimeUnit.MILLISECONDS);
+                } else {
+                    stop(sample, "failed");
+                    emails.forEach(email -> email.result().completeExceptionally(e));
+                }
+            }
+        });
+    }
+
+    // One sample per call to Mailgun; retries show up as outcome=retried
+    private void stop(Timer.Sample sample, String outcome) {
+        sample.stop(Timer.builder("mailgun.send")
+                .description("Calls to the Mailgun messages API")
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    // Network errors, throttling and server errors are worth another try, a rejected request is not
+    private static boolean isTransient(Exception e) {
+        if (e instanceof RetryableException) {
+            return true;
+        }
+        if (e instanceof FeignException feignException) {
+            int status = feignException.status();
+            return status < 0 || status == 429 || status >= 500;
+        }
+        return false;
+    }
+
+    private Message buildMessage(String to, List<PendingEmail> emails) {
+        PendingEmail first = emails.getFirst();
+        String subject = first.subject();
+        String text = first.text();
+        if (emails.size() > 1) {
+            subject = emails.stream().allMatch(email -> first.subject().equals(email.subject()))
+                    ? first.subject() + " (" + emails.size() + ")"
+                    : "Booking updates (" + emails.size() + ")";
+            text = String.join("\n\n", emails.stream().map(PendingEmail::text).toList());
+        }
+
+        Message.MessageBuilder builder = Message.builder()
+                .from(emailFrom)
+                .to(to)
+                .subject(subject)
+                .text(text);
+
+        byte[] icsBytes = mergeCalendars(emails);
+        if (icsBytes != null) {
+            // Attached straight from memory as a multipart part, nothing is written to disk
+            builder.formData(new FormData(ICS_CONTENT_TYPE, ICS_FILE_NAME, icsBytes));
+        }
+        return builder.build();
+    }
+
+    // One calendar holding the latest event of each booking in the batch, so a coalesced mail still carries a single
+    // attachment. UIDs are stable per booking: a creation and a modification in one window must not become two
+    // VEVENTs with the same UID, which clients resolve in either direction.
+    static byte[] mergeCalendars(List<PendingEmail> emails) {
+        List<String> calendars = emails.stream()
+                .map(PendingEmail::icsBytes)
+                .filter(bytes -> bytes != null && bytes.length > 0)
+                .map(bytes -> new String(bytes, StandardCharsets.UTF_8))
+                .toList();
+        if (calendars.isEmpty()) {
+            return null;
+        }
+        if (calendars.size() == 1) {
+            return calendars.getFirst().getBytes(StandardCharsets.UTF_8);
         }
+        // Mails are queued in order, so a later event replaces an earlier one and moves to the end
+        Map<String, String> latestByUid = new LinkedHashMap<>();
+        Map<String, String> headerByUid = new HashMap<>();
+        for (String calendar : calendars) {
+            int headerEnd = calendar.indexOf(BEGIN_EVENT);
+            if (headerEnd < 0) {
+                continue;
+            }
+            for (String event : events(calendar)) {
+                String uid = uidOf(event);
+                latestByUid.remove(uid);
+                latestByUid.put(uid, event);
+                headerByUid.put(uid, calendar.substring(0, headerEnd));
+            }
+        }
+        if (latestByUid.isEmpty()) {
+            return calendars.getFirst().getBytes(StandardCharsets.UTF_8);
+        }
+        // A cancellation carries METHOD:CANCEL, which must not apply to the batch's other events; mixed batches go
+        // without a METHOD and rely on each event's STATUS
+        Set<String> headers = new HashSet<>(headerByUid.values());
+        String header = headers.size() == 1 ? headers.iterator().next() : withoutMethod(headerByUid.values().iterator().next());
+        StringBuilder merged = new StringBuilder().append(header);
+        latestByUid.values().forEach(merged::append);
+        merged.append("END:VCALENDAR\r\n");
+        return merged.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String withoutMethod(String header) {
+        return header.replaceAll("(?m)^METHOD:[^\r\n]*\r\n", "");
+    }
+
+    private static List<String> events(String calendar) {
+        List<String> events = new ArrayList<>();
+        for (int start = calendar.indexOf(BEGIN_EVENT); start >= 0; start = calendar.indexOf(BEGIN_EVENT, start + 1)) {
+            int end = calendar.indexOf(END_EVENT, start);
+            if (end < 0) {
+                break;
+            }
+            events.add(calendar.substring(start, end + END_EVENT.length()) + "\r\n");
+        }
+        return events;
+    }
+
+    // The unfolded UID value; an event without one is kept as it is
+    private static String uidOf(String event) {
+        int start = event.indexOf("\r\nUID:");
+        if (start < 0) {
+            return event;
+        }
+        StringBuilder uid = new StringBuilder();
+        int i = start + "\r\nUID:".length();
+        while (i < event.length()) {
+            int lineEnd = event.indexOf("\r\n", i);
+            if (lineEnd < 0) {
+                lineEnd = event.length();
+            }
+            uid.append(event, i, lineEnd);
+            if (lineEnd + 2 >= event.length() || event.charAt(lineEnd + 2) != ' ') {
+                break;
+            }
+            i = lineEnd + 3;  // continuation line
+        }
+        return uid.toString();
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
     }
 }
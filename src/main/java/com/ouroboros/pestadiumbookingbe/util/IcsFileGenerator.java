@@ -1,27 +1,69 @@
 package com.ouroboros.pestadiumbookingbe.util;
 // IcsFileGenerator.java
 import com.ouroboros.pestadiumbookingbe.dto.BookingSummary;
-import net.fortuna.ical4j.data.CalendarOutputter;
-import net.fortuna.ical4j.model.*;
-import net.fortuna.ical4j.model.component.VEvent;
-import net.fortuna.ical4j.model.parameter.Cn;
-import net.fortuna.ical4j.model.property.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayOutputStream;
-import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.*;
+import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 
+/**
+ * Writes the booking calendar (RFC 5545) straight into a byte buffer. The output matches what ical4j's
+ * CalendarOutputter produced for the same event (see IcsFileGeneratorTest), without building its object graph:
+ * times in UTC, text values escaped and lines folded the same way. Every calendar for a booking carries the booking's
+ * UID and a SEQUENCE that grows with each change, so clients replace the event, or remove it on a cancellation.
+ */
 @Component
 public class IcsFileGenerator {
 
     private static final Logger logger = LoggerFactory.getLogger(IcsFileGenerator.class);
-    private final String ZoneIdName = "Asia/Ho_Chi_Minh";
+    private static final ZoneId ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+    private static final DateTimeFormatter UTC_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final String CRLF = "\r\n";
+    // Same fold width as ical4j's CalendarOutputter, the leading space of a continuation line counts towards it
+    static final int FOLD_LENGTH = 73;
+    private static final String UID_DOMAIN = "@api-stadium-booking.systems";
 
-    public ByteArrayOutputStream generateIcsStream(BookingSummary bookingSummary) throws Exception {
+    private static final String CALENDAR = "BEGIN:VCALENDAR" + CRLF
+            + "PRODID:-//PE Stadium Booking//iCal4j 1.0//EN" + CRLF
+            + "VERSION:2.0" + CRLF
+            + "CALSCALE:GREGORIAN" + CRLF;
+    private static final String HEADER = CALENDAR
+            + "BEGIN:VEVENT" + CRLF;
+    private static final String CANCEL_HEADER = CALENDAR
+            + "METHOD:CANCEL" + CRLF
+            + "BEGIN:VEVENT" + CRLF;
+    private static final String ORGANIZER = "ORGANIZER;CN=Group Ouroboros:mailto:noreply@mg.api-stadium-booking.systems";
+    private static final String FOOTER = "END:VEVENT" + CRLF
+            + "END:VCALENDAR" + CRLF;
+
+    private final Clock clock;
+
+    public IcsFileGenerator() {
+        this(Clock.systemUTC());
+    }
+
+    IcsFileGenerator(Clock clock) {
+        this.clock = clock;
+    }
+
+    public ByteArrayOutputStream generateIcsStream(BookingSummary bookingSummary) {
+        return generate(bookingSummary, false);
+    }
+
+    /**
+     * The calendar that removes the booking's event from the recipient's calendar: the same UID, marked cancelled,
+     * with a SEQUENCE above that of any calendar sent for the booking before.
+     */
+    public ByteArrayOutputStream generateCancellationIcsStream(BookingSummary bookingSummary) {
+        return generate(bookingSummary, true);
+    }
+
+    private ByteArrayOutputStream generate(BookingSummary bookingSummary, boolean cancelled) {
         if (bookingSummary == null) {
             logger.info("Booking is null when generating ics file");
             return new ByteArrayOutputStream();
@@ -35,42 +77,77 @@ public class IcsFileGenerator {
             return new ByteArrayOutputStream();
         }
 
-        try {
-            LocalTime startTime = bookingSummary.getStartTime();
-            LocalTime endTime = bookingSummary.getEndTime();
-
-            ZonedDateTime start = ZonedDateTime.of(bookingSummary.getBookingDate(), startTime, ZoneId.of(ZoneIdName));
-            ZonedDateTime end = ZonedDateTime.of(bookingSummary.getBookingDate(), endTime, ZoneId.of(ZoneIdName));
-
-            DateTime startDateTime = new DateTime(start.toInstant().toEpochMilli());
-            DateTime endDateTime = new DateTime(end.toInstant().toEpochMilli());
-
-            VEvent meeting = new VEvent();
-            meeting.getProperties().add(new DtStart(startDateTime));
-            meeting.getProperties().add(new DtEnd(endDateTime));
-            meeting.getProperties().add(new Summary("Booking for " + bookingSummary.getSportHallName()));
-            Organizer organizer = new Organizer(URI.create("mailto:noreply@mg.api-stadium-booking.systems"));
-            organizer.getParameters().add(new Cn("Group Ouroboros"));
-            meeting.getProperties().add(organizer);
-
-            meeting.getProperties().add(new Description("Purpose: " + bookingSummary.getPurpose()));
-            meeting.getProperties().add(new Uid(UUID.randomUUID().toString()));
-            meeting.getProperties().add(new Location("Sport Hall: " + bookingSummary.getSportHallName()));
-
-            Calendar calendar = new Calendar();
-            calendar.getProperties().add(new ProdId("-//PE Stadium Booking//iCal4j 1.0//EN"));
-            calendar.getProperties().add(Version.VERSION_2_0);
-            calendar.getProperties().add(CalScale.GREGORIAN);
-            calendar.getComponents().add(meeting);
-
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            CalendarOutputter outputter = new CalendarOutputter();
-            outputter.output(calendar, out);
-            return out;
-        } catch (Exception e) {
-            logger.error("Error generating ICS file for booking: {}", bookingSummary, e);
-            throw new Exception("Failed to generate ICS file", e);
+        Instant start = ZonedDateTime.of(bookingSummary.getBookingDate(), bookingSummary.getStartTime(), ZONE).toInstant();
+        Instant end = ZonedDateTime.of(bookingSummary.getBookingDate(), bookingSummary.getEndTime(), ZONE).toInstant();
+
+        StringBuilder ics = new StringBuilder(512).append(cancelled ? CANCEL_HEADER : HEADER);
+        contentLine(ics, "DTSTAMP:" + UTC_DATE_TIME.format(clock.instant()));
+        contentLine(ics, "DTSTART:" + UTC_DATE_TIME.format(start));
+        contentLine(ics, "DTEND:" + UTC_DATE_TIME.format(end));
+        contentLine(ics, "SUMMARY:" + escape("Booking for " + bookingSummary.getSportHallName()));
+        contentLine(ics, ORGANIZER);
+        contentLine(ics, "DESCRIPTION:" + escape("Purpose: " + bookingSummary.getPurpose()));
+        contentLine(ics, "UID:" + uid(bookingSummary.getBookingId()));
+        contentLine(ics, "LOCATION:" + escape("Sport Hall: " + bookingSummary.getSportHallName()));
+        // A deletion does not touch the booking's timestamps, so the cancellation goes one above the last change
+        contentLine(ics, "SEQUENCE:" + (cancelled ? bookingSummary.getSequence() + 1 : bookingSummary.getSequence()));
+        if (cancelled) {
+            contentLine(ics, "STATUS:CANCELLED");
         }
+        ics.append(FOOTER);
+
+        byte[] bytes = ics.toString().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+        out.writeBytes(bytes);
+        return out;
+    }
+
+    // The same booking always gets the same UID, so calendar clients update the event instead of adding another
+    static String uid(UUID bookingId) {
+        return (bookingId != null ? bookingId : UUID.randomUUID()) + UID_DOMAIN;
+    }
+
+    // TEXT escaping from RFC 5545 3.3.11
+    static String escape(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '\\' -> "\\\\";
+                case ';' -> "\\;";
+                case ',' -> "\\,";
+                case '\n' -> "\\n";
+                case '\r' -> (i + 1 < value.length() && value.charAt(i + 1) == '\n') ? "" : "\\n";
+                default -> null;
+            };
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped != null ? escaped.toString() : value;
     }
-}
 
+    // Folds at FOLD_LENGTH octets without splitting a UTF-8 sequence (RFC 5545 3.1)
+    static void contentLine(StringBuilder out, String line) {
+        int lineOctets = 0;
+        for (int i = 0; i < line.length(); ) {
+            int codePoint = line.codePointAt(i);
+            int octets = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (lineOctets + octets > FOLD_LENGTH) {
+                out.append(CRLF).append(' ');
+                lineOctets = 1;
+            }
+            out.appendCodePoint(codePoint);
+            lineOctets += octets;
+            i += Character.charCount(codePoint);
+        }
+        out.append(CRLF);
+    }
+}
@@ -0,0 +1,64 @@
+-- Tables as they existed before migrations were versioned. Existing databases are baselined at version 1
+-- (spring.flyway.baseline-on-migrate), so this only runs against an empty database.
+
+CREATE TABLE IF NOT EXISTS profiles (
+    id          uuid PRIMARY KEY,
+    email       varchar(255) NOT NULL UNIQUE,
+    type        varchar(16) NOT NULL,
+    full_name   varchar(255),
+    student_id  varchar(255),
+    phone       varchar(255),
+    created_at  timestamp with time zone NOT NULL DEFAULT now(),
+    updated_at  timestamp with time zone,
+    deleted     boolean
+);
+
+CREATE TABLE IF NOT EXISTS sports (
+    id          uuid PRIMARY KEY,
+    name        varchar(255) NOT NULL,
+    description varchar(255),
+    icon        varchar(255),
+    active      boolean NOT NULL DEFAULT true,
+    created_at  timestamp with time zone NOT NULL DEFAULT now(),
+    updated_at  timestamp with time zone
+);
+
+CREATE TABLE IF NOT EXISTS sport_halls (
+    id          uuid PRIMARY KEY,
+    sport_id    uuid NOT NULL,
+    name        varchar(255) NOT NULL,
+    description varchar(255),
+    location    varchar(16) NOT NULL,
+    capacity    integer NOT NULL,
+    hourly_rate numeric(10, 2) DEFAULT 0,
+    active      boolean,
+    created_at  timestamp with time zone NOT NULL DEFAULT now(),
+    updated_at  timestamp with time zone
+);
+
+CREATE TABLE IF NOT EXISTS time_slots (
+    id               uuid PRIMARY KEY,
+    start_time       time NOT NULL,
+    end_time         time NOT NULL,
+    duration_minutes integer NOT NULL,
+    active           boolean,
+    updated_at       timestamp with time zone
+);
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id                   uuid PRIMARY KEY,
+    sport_hall_id        uuid NOT NULL,
+    sport_id             uuid NOT NULL,
+    user_id              uuid NOT NULL,
+    booking_date         date NOT NULL,
+    time_slot_id         uuid NOT NULL,
+    participants         integer NOT NULL DEFAULT 1,
+    purpose              text,
+    status               varchar(16) NOT NULL DEFAULT 'pending',
+    canceled_at          timestamp with time zone,
+    canceled_by          uuid,
+    total_cost           numeric(10, 2) DEFAULT 0,
+    special_requirements text,
+    created_at           timestamp with time zone DEFAULT now(),
+    updated_at           timestamp with time zone DEFAULT now()
+);
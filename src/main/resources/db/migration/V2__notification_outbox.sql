@@ -0,0 +1,20 @@
+-- Outbox for booking notifications, written in the same transaction as the booking change
+-- and drained by NotificationDispatcher.
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id              uuid PRIMARY KEY,
+    booking_id      uuid NOT NULL,
+    type            varchar(32) NOT NULL,
+    payload         text NOT NULL,
+    status          varchar(16) NOT NULL DEFAULT 'pending',
+    attempts        integer NOT NULL DEFAULT 0,
+    next_attempt_at timestamp with time zone NOT NULL DEFAULT now(),
+    last_error      text,
+    created_at      timestamp with time zone NOT NULL DEFAULT now(),
+    sent_at         timestamp with time zone
+);
+
+-- The dispatcher only ever polls pending entries that are due.
+CREATE INDEX IF NOT EXISTS ix_notification_outbox_due
+    ON notification_outbox (next_attempt_at)
+    WHERE status = 'pending';
@@ -0,0 +1,43 @@
+-- Constraints backing the optimistic insert in BookingService.createBooking.
+-- Runs outside a transaction (spring.flyway.mixed): the CONCURRENTLY statements cannot run inside one.
+
+-- An interrupted CREATE INDEX CONCURRENTLY leaves an INVALID index behind, which IF NOT EXISTS would then skip for
+-- good. Drop such leftovers so they are built again below.
+DO $$
+DECLARE
+    leftover regclass;
+BEGIN
+    FOR leftover IN
+        SELECT i.indexrelid::regclass
+        FROM pg_index i
+        JOIN pg_class c ON c.oid = i.indexrelid
+        WHERE i.indrelid = 'bookings'::regclass AND NOT i.indisvalid
+          AND c.relname IN ('ux_bookings_active_slot', 'ix_bookings_active_user_day')
+    LOOP
+        EXECUTE 'DROP INDEX ' || leftover;
+    END LOOP;
+END $$;
+
+-- Databases that predate the index can hold several active bookings for one cell, on which the unique index would
+-- fail to build. Keep one per cell, a confirmed one before a pending one and then the oldest, and cancel the others
+-- the way BookingService does (status rejected, canceled_at set).
+UPDATE bookings b
+SET status = 'rejected', canceled_at = now(), updated_at = now()
+FROM (SELECT id,
+             row_number() OVER (PARTITION BY sport_hall_id, booking_date, time_slot_id
+                                ORDER BY status = 'confirmed' DESC, created_at NULLS LAST, id) AS position
+      FROM bookings
+      WHERE status IN ('pending', 'confirmed')) ranked
+WHERE b.id = ranked.id AND ranked.position > 1;
+
+-- At most one active (pending/confirmed) booking per (sport hall, date, time slot).
+-- A concurrent insert that loses the race fails on this index and is reported as a 409 Conflict.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS ux_bookings_active_slot
+    ON bookings (sport_hall_id, booking_date, time_slot_id)
+    WHERE status IN ('pending', 'confirmed');
+
+-- The one-booking-per-day quota exempts admins, which a partial index on bookings cannot express
+-- (the exemption lives in profiles). It is checked inside the insert instead; this index keeps that check cheap.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_bookings_active_user_day
+    ON bookings (user_id, booking_date)
+    WHERE status IN ('pending', 'confirmed');
@@ -0,0 +1,2 @@
+-- Trigram matching for the student id filter (V5). Kept apart from V5, whose statements cannot run in a transaction.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
@@ -0,0 +1,26 @@
+-- Indexes backing SearchService.filterBookings (see BookingSpecifications).
+-- Runs outside a transaction (spring.flyway.mixed): the CONCURRENTLY statements cannot run inside one.
+
+-- Leftovers of an interrupted CREATE INDEX CONCURRENTLY are INVALID and would be skipped by IF NOT EXISTS, see V3
+DO $$
+DECLARE
+    leftover regclass;
+BEGIN
+    FOR leftover IN
+        SELECT i.indexrelid::regclass
+        FROM pg_index i
+        JOIN pg_class c ON c.oid = i.indexrelid
+        WHERE NOT i.indisvalid
+          AND c.relname IN ('ix_profiles_student_id_trgm', 'ix_bookings_sport_hall_id', 'ix_bookings_status')
+    LOOP
+        EXECUTE 'DROP INDEX ' || leftover;
+    END LOOP;
+END $$;
+
+-- Partial, case-insensitive student id match: lower(student_id) LIKE '%...%' (pg_trgm from V4)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_profiles_student_id_trgm
+    ON profiles USING gin (lower(student_id) gin_trgm_ops);
+
+-- Hall join key and the status filter; the user join is served by ix_bookings_user_day_status (V6)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_bookings_sport_hall_id ON bookings (sport_hall_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_bookings_status ON bookings (status);
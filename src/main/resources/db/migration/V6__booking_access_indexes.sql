@@ -0,0 +1,37 @@
+-- Composite indexes matched to the BookingRepository queries, so lookups and row locks touch only the rows asked for.
+-- Runs outside a transaction (spring.flyway.mixed): the CONCURRENTLY statements cannot run inside one.
+
+-- Leftovers of an interrupted CREATE INDEX CONCURRENTLY are INVALID and would be skipped by IF NOT EXISTS, see V3
+DO $$
+DECLARE
+    leftover regclass;
+BEGIN
+    FOR leftover IN
+        SELECT i.indexrelid::regclass
+        FROM pg_index i
+        JOIN pg_class c ON c.oid = i.indexrelid
+        WHERE i.indrelid = 'bookings'::regclass AND NOT i.indisvalid
+          AND c.relname IN ('ix_bookings_slot_status', 'ix_bookings_user_day_status',
+                            'ix_bookings_created_at_id', 'ix_bookings_user_created_at_id')
+    LOOP
+        EXECUTE 'DROP INDEX ' || leftover;
+    END LOOP;
+END $$;
+
+-- findAndLockBySportHallIdAndBookingDateAndTimeSlotIdAndStatus and findBySlotsAndStatusIn, for any status;
+-- ux_bookings_active_slot (V3) only covers pending and confirmed.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_bookings_slot_status
+    ON bookings (sport_hall_id, booking_date, time_slot_id, status);
+
+-- countByUserIdAndBookingDateAndStatusIn and countByUserIdsAndBookingDates, answered from the index alone.
+-- Also serves findByUserId and the profile join, so the ix_bookings_user_id created by hand on older databases goes.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_bookings_user_day_status
+    ON bookings (user_id, booking_date, status);
+DROP INDEX CONCURRENTLY IF EXISTS ix_bookings_user_id;
+
+-- Keyset pages: findPage/findPageAfter and streamAllOrderByCreatedAt walk (created_at, id),
+-- findPageByUserId/findPageByUserIdAfter the same order within one user.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_bookings_created_at_id
+    ON bookings (created_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_bookings_user_created_at_id
+    ON bookings (user_id, created_at, id);
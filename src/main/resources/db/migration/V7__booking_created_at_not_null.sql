@@ -0,0 +1,4 @@
+-- Keyset pages order by (created_at, id) and the cursor carries created_at, so a booking without one could neither be
+-- paged past nor reached. V1 left the column nullable; rows written without it get their last update time instead.
+UPDATE bookings SET created_at = coalesce(updated_at, now()) WHERE created_at IS NULL;
+ALTER TABLE bookings ALTER COLUMN created_at SET NOT NULL;
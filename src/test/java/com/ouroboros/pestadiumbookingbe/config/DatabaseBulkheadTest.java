@@ -0,0 +1,105 @@
+package com.ouroboros.pestadiumbookingbe.config;
+
+import com.ouroboros.pestadiumbookingbe.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseBulkheadTest {
+
+    private DatabaseBulkhead bulkhead;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void setup() {
+        bulkhead = new DatabaseBulkhead();
+        ReflectionTestUtils.setField(bulkhead, "poolSize", 3);
+        ReflectionTestUtils.setField(bulkhead, "reservedConnections", 1);
+        ReflectionTestUtils.setField(bulkhead, "maxExports", 1);
+        ReflectionTestUtils.setField(bulkhead, "maxWaiting", 1);
+        ReflectionTestUtils.setField(bulkhead, "acquireTimeout", Duration.ofMillis(100));
+        bulkhead.init();
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("POST", "/api/bookings/create-booking");
+    }
+
+    @Test
+    void permitReleasedAfterCompletion() throws Exception {
+        MockHttpServletRequest request = request();
+
+        assertTrue(bulkhead.preHandle(request, response, null));
+        assertEquals(1, bulkhead.availablePermits());
+        bulkhead.afterCompletion(request, response, null, null);
+        bulkhead.afterCompletion(request, response, null, null);  // released once only
+
+        assertEquals(2, bulkhead.availablePermits());
+    }
+
+    @Test
+    void saturated_shedsAfterTimeout() throws Exception {
+        bulkhead.preHandle(request(), response, null);
+        bulkhead.preHandle(request(), response, null);
+
+        long start = System.nanoTime();
+        assertThrows(ServiceUnavailableException.class, () -> bulkhead.preHandle(request(), response, null));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, bulkhead.waitingRequests());
+    }
+
+    @Test
+    void waitQueueFull_shedsImmediately() throws Exception {
+        ReflectionTestUtils.setField(bulkhead, "acquireTimeout", Duration.ofSeconds(5));
+        MockHttpServletRequest first = request();
+        bulkhead.preHandle(first, response, null);
+        bulkhead.preHandle(request(), response, null);
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return bulkhead.preHandle(request(), response, null);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        while (bulkhead.waitingRequests() == 0) {
+            Thread.onSpinWait();
+        }
+
+        long start = System.nanoTime();
+        assertThrows(ServiceUnavailableException.class, () -> bulkhead.preHandle(request(), response, null));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        bulkhead.afterCompletion(first, response, null, null);
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void exportLimit_shedsImmediatelyAndLeavesRequestPermits() {
+        bulkhead.acquireExport();
+
+        assertThrows(ServiceUnavailableException.class, () -> bulkhead.acquireExport());
+        assertEquals(2, bulkhead.availablePermits());
+
+        bulkhead.releaseExport();
+        bulkhead.acquireExport();
+    }
+
+    @Test
+    void reserveLeavingNoPermits_failsAtStartup() {
+        DatabaseBulkhead misconfigured = new DatabaseBulkhead();
+        ReflectionTestUtils.setField(misconfigured, "poolSize", 4);
+        ReflectionTestUtils.setField(misconfigured, "reservedConnections", 4);
+        ReflectionTestUtils.setField(misconfigured, "maxExports", 1);
+
+        assertThrows(IllegalStateException.class, misconfigured::init);
+    }
+}
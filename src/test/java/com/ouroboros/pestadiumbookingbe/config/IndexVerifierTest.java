@@ -0,0 +1,37 @@
+package com.ouroboros.pestadiumbookingbe.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexVerifierTest {
+
+    private static IndexVerifier verifier(String mode) {
+        IndexVerifier verifier = new IndexVerifier();
+        ReflectionTestUtils.setField(verifier, "mode", mode);
+        return verifier;
+    }
+
+    @Test
+    void check_allIndexesPresent_passes() {
+        assertDoesNotThrow(() -> verifier("fail").check(new HashSet<>(IndexVerifier.EXPECTED_INDEXES)));
+    }
+
+    @Test
+    void check_missingIndex_failModeThrows() {
+        Set<String> present = new HashSet<>(IndexVerifier.EXPECTED_INDEXES);
+        present.remove("ix_bookings_slot_status");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> verifier("fail").check(present));
+        assertTrue(e.getMessage().contains("ix_bookings_slot_status"));
+    }
+
+    @Test
+    void check_missingIndex_warnModeDoesNotThrow() {
+        assertDoesNotThrow(() -> verifier("warn").check(Set.of()));
+    }
+}
@@ -0,0 +1,167 @@
+package com.ouroboros.pestadiumbookingbe.service;
+
+import com.ouroboros.pestadiumbookingbe.dto.AvailabilityMatrix;
+import com.ouroboros.pestadiumbookingbe.dto.HallAvailability;
+import com.ouroboros.pestadiumbookingbe.exception.BadRequestException;
+import com.ouroboros.pestadiumbookingbe.exception.ServiceUnavailableException;
+import com.ouroboros.pestadiumbookingbe.model.Booking;
+import com.ouroboros.pestadiumbookingbe.model.SportHall;
+import com.ouroboros.pestadiumbookingbe.model.SportHallLocation;
+import com.ouroboros.pestadiumbookingbe.model.Status;
+import com.ouroboros.pestadiumbookingbe.model.TimeSlot;
+import com.ouroboros.pestadiumbookingbe.repository.BookingRepository;
+import com.ouroboros.pestadiumbookingbe.repository.SportHallRepository;
+import com.ouroboros.pestadiumbookingbe.repository.TimeSlotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@Transactional
+class AvailabilityServiceTest {
+
+    @Autowired
+    private AvailabilityService availabilityService;
+    @Autowired
+    private SlotOccupancyIndex slotOccupancyIndex;
+    @MockitoSpyBean
+    private SportHallRepository sportHallRepository;
+    @MockitoSpyBean
+    private TimeSlotRepository timeSlotRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    UUID hallId, earlySlotId, lateSlotId;
+    LocalDate date;
+
+    @BeforeEach
+    void setup() {
+        SportHall h = new SportHall();
+        h.setSportId(UUID.randomUUID());
+        h.setName("Hall");
+        h.setLocation(SportHallLocation.indoor);
+        h.setCapacity(10);
+        sportHallRepository.save(h);
+        hallId = h.getId();
+
+        // saved out of order to check the columns are sorted by start time
+        TimeSlot late = new TimeSlot();
+        late.setStartTime(LocalTime.of(10, 0));
+        late.setEndTime(LocalTime.of(11, 0));
+        late.setDurationMinutes(60);
+        timeSlotRepository.save(late);
+        lateSlotId = late.getId();
+
+        TimeSlot early = new TimeSlot();
+        early.setStartTime(LocalTime.of(9, 0));
+        early.setEndTime(LocalTime.of(10, 0));
+        early.setDurationMinutes(60);
+        timeSlotRepository.save(early);
+        earlySlotId = early.getId();
+
+        date = LocalDate.now().plusDays(1);
+    }
+
+    @Test
+    void getAvailability_marksOccupiedCells() {
+        slotOccupancyIndex.occupy(new SlotOccupancyIndex.SlotKey(hallId, date.plusDays(1), lateSlotId), UUID.randomUUID());
+
+        AvailabilityMatrix matrix = availabilityService.getAvailability(date, date.plusDays(2), Optional.of(hallId));
+
+        assertEquals(List.of(earlySlotId, lateSlotId), matrix.getTimeSlotIds());
+        HallAvailability row = matrix.getSportHalls().getFirst();
+        assertEquals(hallId, row.getSportHallId());
+        assertArrayEquals(new int[][]{{0, 0}, {0, 1}, {0, 0}}, row.getOccupied());
+    }
+
+    @Test
+    void getAvailability_releasedCellIsFree() {
+        UUID bookingId = UUID.randomUUID();
+        SlotOccupancyIndex.SlotKey key = new SlotOccupancyIndex.SlotKey(hallId, date, earlySlotId);
+        slotOccupancyIndex.occupy(key, bookingId);
+        slotOccupancyIndex.release(key, bookingId);
+
+        AvailabilityMatrix matrix = availabilityService.getAvailability(date, date, Optional.of(hallId));
+
+        assertArrayEquals(new int[][]{{0, 0}}, matrix.getSportHalls().getFirst().getOccupied());
+    }
+
+    @Test
+    void getAvailability_pastDays_readFromDatabase() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        saveBooking(yesterday, earlySlotId, Status.confirmed);
+        saveBooking(yesterday, lateSlotId, Status.rejected);
+
+        AvailabilityMatrix matrix = availabilityService.getAvailability(yesterday, yesterday, Optional.of(hallId));
+
+        assertArrayEquals(new int[][]{{1, 0}}, matrix.getSportHalls().getFirst().getOccupied());
+    }
+
+    @Test
+    void getAvailability_indexNotReady_readsFromDatabase() {
+        saveBooking(date, lateSlotId, Status.pending);
+        ReflectionTestUtils.setField(slotOccupancyIndex, "ready", false);
+        try {
+            AvailabilityMatrix matrix = availabilityService.getAvailability(date, date, Optional.of(hallId));
+
+            assertArrayEquals(new int[][]{{0, 1}}, matrix.getSportHalls().getFirst().getOccupied());
+        } finally {
+            ReflectionTestUtils.setField(slotOccupancyIndex, "ready", true);
+        }
+    }
+
+    @Test
+    void getAvailability_allHalls() {
+        AvailabilityMatrix matrix = availabilityService.getAvailability(date, date, Optional.empty());
+        assertTrue(matrix.getSportHalls().stream().anyMatch(row -> row.getSportHallId().equals(hallId)));
+    }
+
+    @Test
+    void getAvailability_invalidRange_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () ->
+                availabilityService.getAvailability(date, date.minusDays(1), Optional.empty()));
+        assertThrows(BadRequestException.class, () ->
+                availabilityService.getAvailability(date, date.plusDays(AvailabilityService.MAX_DAYS), Optional.empty()));
+    }
+
+    @Test
+    void getAvailability_unknownHall_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () ->
+                availabilityService.getAvailability(date, date, Optional.of(UUID.randomUUID())));
+    }
+
+    @Test
+    void getAvailability_dataAccessResourceFailure_throwsServiceUnavailable() {
+        doThrow(DataAccessResourceFailureException.class)
+                .when(timeSlotRepository).findAll();
+        assertThrows(ServiceUnavailableException.class, () ->
+                availabilityService.getAvailability(date, date, Optional.empty()));
+    }
+
+    private void saveBooking(LocalDate bookingDate, UUID timeSlotId, Status status) {
+        Booking booking = new Booking();
+        booking.setUserId(UUID.randomUUID());
+        booking.setSportHallId(hallId);
+        booking.setSportId(UUID.randomUUID());
+        booking.setBookingDate(bookingDate);
+        booking.setTimeSlotId(timeSlotId);
+        booking.setStatus(status);
+        bookingRepository.save(booking);
+    }
+}
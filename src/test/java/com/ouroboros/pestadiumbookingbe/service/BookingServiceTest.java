@@ -1,15 +1,25 @@
 package com.ouroboros.pestadiumbookingbe.service;
 
+import com.ouroboros.pestadiumbookingbe.dto.BulkBookingResult;
+import com.ouroboros.pestadiumbookingbe.dto.RecurringBookingResult;
 import com.ouroboros.pestadiumbookingbe.exception.*;
 import com.ouroboros.pestadiumbookingbe.model.*;
 import com.ouroboros.pestadiumbookingbe.notifier.BookingNotificationType;
 import com.ouroboros.pestadiumbookingbe.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +33,7 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -31,12 +42,19 @@ import static org.mockito.Mockito.*;
 class BookingServiceTest {
 
     @Autowired BookingService bookingService;
+    @Autowired SlotOccupancyIndex slotOccupancyIndex;
     @MockitoSpyBean BookingRepository bookingRepository;
     @MockitoSpyBean ProfileRepository profileRepository;
     @MockitoSpyBean SportHallRepository sportHallRepository;
     @MockitoSpyBean TimeSlotRepository timeSlotRepository;
     @MockitoSpyBean SportRepository sportRepository;
     @MockitoSpyBean NotificationService notificationService;
+    @MockitoSpyBean NotificationOutboxService notificationOutboxService;
+    @MockitoSpyBean NotificationDispatcher notificationDispatcher;
+    @Autowired NotificationOutboxRepository notificationOutboxRepository;
+    @Autowired EntityManagerFactory entityManagerFactory;
+    @PersistenceContext EntityManager entityManager;
+    @Autowired MeterRegistry meterRegistry;
 
     UUID userId, hallId, slotId, sportId;
     UUID otherUserId, otherHallId, otherSlotId, otherSportId;
@@ -132,6 +150,7 @@ class BookingServiceTest {
         );
 
         assertNotNull(b.getId());
+        assertEquals(1, b.getId().version());  // time-based, like the ids Hibernate generates for bookings
 
         assertEquals(userId, b.getUserId());
         assertEquals(hallId, b.getSportHallId());
@@ -143,6 +162,22 @@ class BookingServiceTest {
         assertEquals(before + 1, bookingRepository.count());
     }
 
+    @Test
+    void createBooking_returnsInsertedRowWithoutReadingItBack() {
+        Booking b = bookingService.createBooking(userId, hallId, sportId, date, slotId, "purpose");
+
+        verify(bookingRepository, never()).findById(any());
+        entityManager.clear();
+        Booking stored = bookingRepository.findById(b.getId()).orElseThrow();
+        assertEquals(stored.getUserId(), b.getUserId());
+        assertEquals(stored.getPurpose(), b.getPurpose());
+        assertEquals(stored.getStatus(), b.getStatus());
+        assertEquals(stored.getParticipants(), b.getParticipants());
+        assertEquals(0, stored.getTotalCost().compareTo(b.getTotalCost()));
+        assertTrue(stored.getCreatedAt().isEqual(b.getCreatedAt()));
+        assertTrue(stored.getUpdatedAt().isEqual(b.getUpdatedAt()));
+    }
+
     @Test
     void createBooking_invalidUser_throwsBadRequest() {
         assertThrows(BadRequestException.class, () ->
@@ -208,6 +243,44 @@ class BookingServiceTest {
         );
     }
 
+    @Test
+    void createBooking_outcomesRecordedAsMetrics() {
+        long created = operationCount("createBooking", "success");
+        long quota = operationCount("createBooking", "quota");
+        long forbidden = operationCount("cancelBooking", "forbidden");
+
+        Booking b = bookingService.createBooking(userId, hallId, sportId, date, slotId, "purpose");
+        assertThrows(QuotaExceededException.class, () ->
+            bookingService.createBooking(userId, hallId, sportId, date, slotId, "other")
+        );
+        assertThrows(ForbiddenException.class, () ->
+            bookingService.cancelBooking(b.getId(), otherUserId)
+        );
+
+        assertEquals(created + 1, operationCount("createBooking", "success"));
+        assertEquals(quota + 1, operationCount("createBooking", "quota"));
+        assertEquals(forbidden + 1, operationCount("cancelBooking", "forbidden"));
+    }
+
+    private long operationCount(String operation, String outcome) {
+        Timer timer = meterRegistry.find("bookings.operations").tags("operation", operation, "outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    @Test
+    void createBooking_profileLockRecordedAsMetric() {
+        long profileLocks = lockCount("ProfileRepository", "findAndLockById");
+
+        bookingService.createBooking(userId, hallId, sportId, date, slotId, "purpose");
+
+        assertEquals(profileLocks + 1, lockCount("ProfileRepository", "findAndLockById"));
+    }
+
+    private long lockCount(String repository, String query) {
+        Timer timer = meterRegistry.find("bookings.lock.wait").tags("repository", repository, "query", query).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
     @Test
     void createBooking_adminUnlimitedQuota() {
         bookingService.createBooking(adminId, hallId, sportId, date, slotId, "admin purpose");
@@ -237,21 +310,107 @@ class BookingServiceTest {
         );
     }
 
+    @Test
+    void createBooking_committedOccupiedSlot_confirmedAndRejectedBeforeInsert() {
+        bookingService.createBooking(userId, hallId, sportId, date, slotId, "original");
+
+        // Simulate afterCommit so the occupancy index learns about the booking
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        syncs.forEach(TransactionSynchronization::afterCommit);
+        clearInvocations(bookingRepository, profileRepository);
+
+        assertThrows(ConflictException.class, () ->
+            bookingService.createBooking(otherUserId, hallId, sportId, date, slotId, "conflict")
+        );
+        verify(bookingRepository).existsBySportHallIdAndBookingDateAndTimeSlotIdAndStatusIn(eq(hallId), eq(date), eq(slotId), any());
+        verify(bookingRepository, never()).insertIfAvailable(any(), any(), any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(profileRepository);
+    }
+
+    @Test
+    void createBooking_staleIndexHit_droppedAndBooked() {
+        // A booking this instance saw commit, since cancelled on another instance
+        SlotOccupancyIndex.SlotKey key = new SlotOccupancyIndex.SlotKey(hallId, date, slotId);
+        slotOccupancyIndex.occupy(key, UUID.randomUUID());
+
+        assertDoesNotThrow(() ->
+            bookingService.createBooking(userId, hallId, sportId, date, slotId, "after remote cancel")
+        );
+        assertFalse(slotOccupancyIndex.isOccupied(key));
+    }
+
+    @Test
+    void createBooking_committedBookingSameDay_quotaConfirmedAndRejectedBeforeInsert() {
+        bookingService.createBooking(userId, hallId, sportId, date, slotId, "original");
+
+        // Simulate afterCommit so the occupancy index counts the user's booking for that day
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        syncs.forEach(TransactionSynchronization::afterCommit);
+        clearInvocations(bookingRepository);
+
+        assertThrows(ForbiddenException.class, () ->
+            bookingService.createBooking(userId, otherHallId, otherSportId, date, otherSlotId, "second")
+        );
+        verify(bookingRepository).countByUserIdAndBookingDateAndStatusIn(eq(userId), eq(date), any());
+        verify(bookingRepository, never()).insertIfAvailable(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void createBooking_staleQuotaInIndex_booked() {
+        // The index still counts a booking of the user that was cancelled on another instance
+        Booking cancelledElsewhere = new Booking();
+        cancelledElsewhere.setId(UUID.randomUUID());
+        cancelledElsewhere.setUserId(userId);
+        cancelledElsewhere.setSportHallId(otherHallId);
+        cancelledElsewhere.setTimeSlotId(otherSlotId);
+        cancelledElsewhere.setBookingDate(date);
+        slotOccupancyIndex.occupy(cancelledElsewhere);
+
+        assertDoesNotThrow(() ->
+            bookingService.createBooking(userId, hallId, sportId, date, slotId, "after remote cancel")
+        );
+    }
+
+    @Test
+    void cancelBooking_releasesSlotInIndex() {
+        Booking b = bookingService.createBooking(userId, hallId, sportId, date, slotId, "original");
+        bookingService.cancelBooking(b.getId(), userId);
+
+        // Simulate afterCommit for both the creation and the cancellation
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        syncs.forEach(TransactionSynchronization::afterCommit);
+
+        assertDoesNotThrow(() ->
+            bookingService.createBooking(otherUserId, hallId, sportId, date, slotId, "after cancel")
+        );
+    }
+
     @Test
     void createBooking_dataAccessException_throwsServiceUnavailable() {
         doThrow(new DataAccessResourceFailureException("Database error"))
-                .when(profileRepository).findById(any(UUID.class));
+                .when(bookingRepository).insertIfAvailable(any(), any(), any(), any(), any(), any(), any(), any());
 
         assertThrows(ServiceUnavailableException.class, () ->
                 bookingService.createBooking(userId, hallId, sportId, date, slotId, "purpose")
         );
     }
 
+    @Test
+    void createBooking_activeSlotIndexViolation_throwsConflict() {
+        // Simulate losing the race against a concurrent insert for the same cell
+        doThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint \"" + BookingService.ACTIVE_SLOT_INDEX + "\""))
+                .when(bookingRepository).insertIfAvailable(any(), any(), any(), any(), any(), any(), any(), any());
+
+        assertThrows(ConflictException.class, () ->
+                bookingService.createBooking(userId, hallId, sportId, date, slotId, "purpose")
+        );
+    }
+
     @Test
     void createBooking_transactionTimeout_throwsRequestTimeout() {
         // Simulate a transaction timeout by throwing an exception
         doThrow(new TransactionTimedOutException("Transaction timed out"))
-                .when(bookingRepository).save(any(Booking.class));
+                .when(bookingRepository).insertIfAvailable(any(), any(), any(), any(), any(), any(), any(), any());
 
         assertThrows(RequestTimeoutException.class, () ->
                 bookingService.createBooking(userId, hallId, sportId, date, slotId, "purpose")
@@ -262,7 +421,7 @@ class BookingServiceTest {
     void createBooking_genericException_throwsRuntimeException() {
         // Simulate a generic exception
         doThrow(new RuntimeException("Unexpected error"))
-                .when(bookingRepository).save(any(Booking.class));
+                .when(bookingRepository).insertIfAvailable(any(), any(), any(), any(), any(), any(), any(), any());
 
         assertThrows(RuntimeException.class, () ->
                 bookingService.createBooking(userId, hallId, sportId, date, slotId, "purpose")
@@ -323,6 +482,19 @@ class BookingServiceTest {
         );
     }
 
+    @Test
+    void confirmBooking_confirmRejectedBookingSlotTaken_throwsConflict() {
+        Booking b = bookingService.createBooking(userId, hallId, sportId, date, slotId, "purpose");
+        bookingService.cancelBooking(b.getId(), userId);
+        bookingService.createBooking(otherUserId, hallId, sportId, date, slotId, "another purpose");
+        // within quota for userId, but the cell is held by the other user's pending booking
+
+        assertThrows(ConflictException.class, () ->
+            bookingService.confirmBooking(b.getId(), adminId)
+        );
+        assertEquals(Status.rejected, bookingRepository.findById(b.getId()).orElseThrow().getStatus());
+    }
+
     @Test
     void confirmBooking_dataAccessException_throwsServiceUnavailable() {
         Booking b = bookingService.createBooking(userId, hallId, sportId, date, slotId, "purpose");
@@ -397,6 +569,27 @@ class BookingServiceTest {
         );
     }
 
+    @Test
+    void cancelBooking_otherUsersBooking_throwsForbidden() {
+        Booking p = bookingService.createBooking(userId, hallId, sportId,
+            date, slotId, "purpose");
+        assertThrows(ForbiddenException.class, () ->
+            bookingService.cancelBooking(p.getId(), otherUserId)
+        );
+        assertEquals(Status.pending, p.getStatus());
+    }
+
+    @Test
+    void cancelBooking_byAdmin_cancelsOtherUsersBooking() {
+        Booking p = bookingService.createBooking(userId, hallId, sportId,
+            date, slotId, "purpose");
+
+        Booking canceled = bookingService.cancelBooking(p.getId(), adminId);
+
+        assertEquals(Status.rejected, canceled.getStatus());
+        assertEquals(adminId, canceled.getCanceledBy());
+    }
+
     @Test
     void cancelBooking_alreadyCanceled_throwsBadRequest() {
         Booking p = bookingService.createBooking(userId, hallId, sportId,
@@ -494,7 +687,7 @@ class BookingServiceTest {
                 date, slotId, "purpose");
 
         Booking updated = bookingService.modifyBooking(
-                m.getId(), otherUserId, userId, otherHallId, otherSportId, otherDate, otherSlotId, "new purpose");
+                m.getId(), adminId, userId, otherHallId, otherSportId, otherDate, otherSlotId, "new purpose");
 
         assertEquals(otherHallId, updated.getSportHallId());
         assertEquals(otherSportId, updated.getSportId());
@@ -652,6 +845,32 @@ class BookingServiceTest {
         );
     }
 
+    @Test
+    void modifyBooking_otherUsersBooking_throwsForbidden() {
+        Booking m = bookingService.createBooking(userId, hallId, sportId,
+            date, slotId, "purpose");
+        assertThrows(ForbiddenException.class, () ->
+            bookingService.modifyBooking(m.getId(), otherUserId, otherUserId, hallId, sportId, date, slotId, "taken over")
+        );
+    }
+
+    @Test
+    void modifyBooking_bookingAndProfileReadOnce() {
+        Booking m = bookingService.createBooking(userId, hallId, sportId,
+            date, slotId, "purpose");
+        entityManager.flush();
+        entityManager.clear();
+        clearInvocations(bookingRepository);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        bookingService.modifyBooking(m.getId(), userId, userId, hallId, sportId, date, otherSlotId, "purpose");
+
+        verify(bookingRepository, times(1)).findAndLockById(m.getId());
+        verify(bookingRepository, never()).findById(any());
+        assertEquals(1, statistics.getEntityStatistics(Profile.class.getName()).getLoadCount());
+    }
+
     @Test
     void modifyBooking_occupiedPendingBooking_throwsConflict() {
         Booking m = bookingService.createBooking(userId, hallId, sportId,
@@ -783,7 +1002,7 @@ class BookingServiceTest {
     }
 
     @Test
-    void createBooking_triggersNotification() {
+    void createBooking_enqueuesNotification() {
 
         Booking b = bookingService.createBooking(userId, hallId, sportId, date, slotId, "newBooking");
 
@@ -791,13 +1010,11 @@ class BookingServiceTest {
         List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
         syncs.forEach(TransactionSynchronization::afterCommit);
 
-        verify(notificationService, times(1))
-            .notifyOnBookingChange(b, BookingNotificationType.CREATION);
-
+        assertQueued(b, BookingNotificationType.CREATION);
     }
 
     @Test
-    void confirmBooking_triggersNotification() {
+    void confirmBooking_enqueuesNotification() {
         Booking b = bookingService.createBooking(userId, hallId, sportId, date, slotId, "notifyTest");
         bookingService.confirmBooking(b.getId(), adminId);
 
@@ -805,12 +1022,11 @@ class BookingServiceTest {
         List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
         syncs.forEach(TransactionSynchronization::afterCommit);
 
-        verify(notificationService, times(1))
-            .notifyOnBookingChange(b, BookingNotificationType.CONFIRMATION);
+        assertQueued(b, BookingNotificationType.CONFIRMATION);
     }
 
     @Test
-    void cancelBooking_triggersNotification() {
+    void cancelBooking_enqueuesNotification() {
         Booking b = bookingService.createBooking(userId, hallId, sportId, date, slotId, "toCancel");
         bookingService.cancelBooking(b.getId(), userId);
 
@@ -818,12 +1034,11 @@ class BookingServiceTest {
         List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
         syncs.forEach(TransactionSynchronization::afterCommit);
 
-        verify(notificationService, times(1))
-            .notifyOnBookingChange(b, BookingNotificationType.CANCELLATION);
+        assertQueued(b, BookingNotificationType.CANCELLATION);
     }
 
     @Test
-    void modifyBooking_triggersNotification() {
+    void modifyBooking_enqueuesNotification() {
         Booking b = bookingService.createBooking(userId, hallId, sportId, date, slotId, "toModify");
         bookingService.modifyBooking(b.getId(), userId, userId, otherHallId, otherSportId, otherDate, otherSlotId, "modified purpose");
 
@@ -831,12 +1046,11 @@ class BookingServiceTest {
         List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
         syncs.forEach(TransactionSynchronization::afterCommit);
 
-        verify(notificationService, times(1))
-            .notifyOnBookingChange(b, BookingNotificationType.MODIFICATION);
+        assertQueued(b, BookingNotificationType.MODIFICATION);
     }
 
     @Test
-    void deleteBooking_triggersNotification() {
+    void deleteBooking_enqueuesNotification() {
         Booking b = bookingService.createBooking(userId, hallId, sportId, date, slotId, "toDelete");
         bookingService.deleteBooking(b.getId(), userId);
 
@@ -844,7 +1058,234 @@ class BookingServiceTest {
         List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
         syncs.forEach(TransactionSynchronization::afterCommit);
 
-        verify(notificationService, times(1))
-            .notifyOnBookingChange(b, BookingNotificationType.DELETION);
+        assertQueued(b, BookingNotificationType.DELETION);
+    }
+
+    @Test
+    void createBooking_enqueueFails_bookingFails() {
+        doThrow(new RuntimeException("boom")).when(notificationOutboxService).enqueue(any(), any());
+
+        assertThrows(RuntimeException.class, () ->
+            bookingService.createBooking(userId, hallId, sportId, date, slotId, "enqueueFails")
+        );
+        verify(notificationDispatcher, never()).wakeUp();
+    }
+
+    @Test
+    void bulkConfirmBookings_perIdResults() {
+        Booking pending = bookingService.createBooking(userId, hallId, sportId, date, slotId, "bulk1");
+        Booking confirmed = bookingService.createBooking(otherUserId, otherHallId, otherSportId, date, otherSlotId, "bulk2");
+        bookingService.confirmBooking(confirmed.getId(), adminId);
+        UUID unknownId = UUID.randomUUID();
+
+        BulkBookingResult result = bookingService.bulkConfirmBookings(List.of(pending.getId(), confirmed.getId(), unknownId, pending.getId()), adminId);
+
+        assertEquals(3, result.getResults().size());
+        assertEquals(1, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertEquals(pending.getId(), result.getResults().get(0).getBookingId());
+        assertTrue(result.getResults().get(0).isSuccess());
+        assertEquals(Status.confirmed, result.getResults().get(0).getStatus());
+        assertFalse(result.getResults().get(1).isSuccess());
+        assertEquals(Status.confirmed, result.getResults().get(1).getStatus());
+        assertEquals("Booking not found.", result.getResults().get(2).getError());
+        assertEquals(Status.confirmed, bookingRepository.findById(pending.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void bulkConfirmBookings_rejectedOverQuota_onlyFirstAdmitted() {
+        Booking first = bookingService.createBooking(userId, hallId, sportId, date, slotId, "first");
+        Booking second = bookingService.createBooking(userId, otherHallId, otherSportId, otherDate, otherSlotId, "second");
+        bookingService.cancelBooking(first.getId(), userId);
+        bookingService.cancelBooking(second.getId(), userId);
+        // move the second booking onto the same day so both compete for the user's quota
+        bookingRepository.findById(second.getId()).orElseThrow().setBookingDate(date);
+        bookingRepository.flush();
+
+        BulkBookingResult result = bookingService.bulkConfirmBookings(List.of(first.getId(), second.getId()), adminId);
+
+        assertEquals(1, result.getSucceeded());
+        BulkBookingResult.Item refused = result.getResults().stream().filter(item -> !item.isSuccess()).findFirst().orElseThrow();
+        assertEquals(Status.rejected, refused.getStatus());
+        assertEquals("Quota exceeded for the user on the booking date.", refused.getError());
+    }
+
+    @Test
+    void bulkConfirmBookings_rejectedSlotTaken_refused() {
+        Booking b = bookingService.createBooking(userId, hallId, sportId, date, slotId, "first");
+        bookingService.cancelBooking(b.getId(), userId);
+        bookingService.createBooking(otherUserId, hallId, sportId, date, slotId, "taken");
+
+        BulkBookingResult result = bookingService.bulkConfirmBookings(List.of(b.getId()), adminId);
+
+        assertFalse(result.getResults().getFirst().isSuccess());
+        assertEquals("A booking already exists for the given combination.", result.getResults().getFirst().getError());
+    }
+
+    @Test
+    void bulkConfirmBookings_setBasedAndOneOutboxBatch() {
+        Booking b1 = bookingService.createBooking(userId, hallId, sportId, date, slotId, "b1");
+        Booking b2 = bookingService.createBooking(otherUserId, otherHallId, otherSportId, date, otherSlotId, "b2");
+        clearInvocations(bookingRepository, notificationOutboxService, notificationDispatcher);
+
+        bookingService.bulkConfirmBookings(List.of(b2.getId(), b1.getId()), adminId);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        verify(bookingRepository, times(1)).findAndLockAllByIdInOrderById(any());
+        verify(bookingRepository, never()).findAndLockById(any());
+        verify(bookingRepository, times(1)).confirmAllById(any(), eq(Status.confirmed), any());
+        verify(notificationOutboxService, times(1)).enqueueAll(any(), eq(BookingNotificationType.CONFIRMATION));
+        verify(notificationOutboxService, never()).enqueue(any(), any());
+        assertQueued(b1, BookingNotificationType.CONFIRMATION);
+        assertQueued(b2, BookingNotificationType.CONFIRMATION);
+    }
+
+    @Test
+    void bulkConfirmBookings_invalidInput_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> bookingService.bulkConfirmBookings(List.of(), adminId));
+        assertThrows(BadRequestException.class, () -> bookingService.bulkConfirmBookings(List.of(UUID.randomUUID()), UUID.randomUUID()));
+    }
+
+    @Test
+    void bulkConfirmBookings_dataAccessResourceFailureException_throwsServiceUnavailable() {
+        Booking b = bookingService.createBooking(userId, hallId, sportId, date, slotId, "purpose");
+        doThrow(new DataAccessResourceFailureException("DB down"))
+                .when(bookingRepository).findAndLockAllByIdInOrderById(any());
+
+        assertThrows(ServiceUnavailableException.class, () -> bookingService.bulkConfirmBookings(List.of(b.getId()), adminId));
+    }
+
+    @Test
+    void bulkCancelBookings_perIdResults() {
+        Booking pending = bookingService.createBooking(userId, hallId, sportId, date, slotId, "c1");
+        Booking rejected = bookingService.createBooking(otherUserId, otherHallId, otherSportId, date, otherSlotId, "c2");
+        bookingService.cancelBooking(rejected.getId(), otherUserId);
+
+        BulkBookingResult result = bookingService.bulkCancelBookings(List.of(pending.getId(), rejected.getId()), adminId);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(1, result.getSucceeded());
+        assertEquals(Status.rejected, result.getResults().get(0).getStatus());
+        assertEquals("Only pending/confirmed bookings can be canceled.", result.getResults().get(1).getError());
+        Booking canceled = bookingRepository.findById(pending.getId()).orElseThrow();
+        assertEquals(Status.rejected, canceled.getStatus());
+        assertEquals(adminId, canceled.getCanceledBy());
+        assertQueued(pending, BookingNotificationType.CANCELLATION);
+    }
+
+    @Test
+    void createRecurringBooking_reportsConflictsPerDate() {
+        bookingService.createBooking(otherUserId, hallId, sportId, date.plusWeeks(1), slotId, "taken");
+        bookingService.createBooking(userId, otherHallId, otherSportId, date.plusWeeks(2), otherSlotId, "own");
+        clearInvocations(bookingRepository, notificationOutboxService);
+
+        RecurringBookingResult result = bookingService.createRecurringBooking(userId, hallId, sportId, slotId,
+                date, date.plusWeeks(3), 1, "club training");
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(4, result.getOccurrences().size());
+        assertEquals(2, result.getCreated());
+        assertEquals(2, result.getConflicted());
+        assertTrue(result.getOccurrences().get(0).isCreated());
+        assertEquals("A booking already exists for the given combination.", result.getOccurrences().get(1).getError());
+        assertEquals("Quota exceeded for the user on the given date.", result.getOccurrences().get(2).getError());
+        assertEquals(date.plusWeeks(3), result.getOccurrences().get(3).getDate());
+
+        Booking created = bookingRepository.findById(result.getOccurrences().get(3).getBookingId()).orElseThrow();
+        assertEquals(Status.pending, created.getStatus());
+        assertEquals(slotId, created.getTimeSlotId());
+        verify(bookingRepository, times(1)).saveAllAndFlush(any());
+        verify(bookingRepository, never()).insertIfAvailable(any(), any(), any(), any(), any(), any(), any(), any());
+        verify(notificationOutboxService, times(1)).enqueueAll(any(), eq(BookingNotificationType.CREATION));
+        assertQueued(created, BookingNotificationType.CREATION);
+    }
+
+    @Test
+    void createRecurringBooking_everyOtherWeek() {
+        RecurringBookingResult result = bookingService.createRecurringBooking(adminId, hallId, sportId, slotId,
+                date, date.plusWeeks(4), 2, "course");
+
+        assertEquals(List.of(date, date.plusWeeks(2), date.plusWeeks(4)),
+                result.getOccurrences().stream().map(RecurringBookingResult.Occurrence::getDate).toList());
+        assertEquals(3, result.getCreated());
+    }
+
+    @Test
+    void createRecurringBooking_dateTakenConcurrently_retriedAndReportedAsConflict() {
+        doAnswer(invocation -> {
+            // Another booking commits for the second date between the series' read and its insert
+            Booking concurrent = new Booking();
+            concurrent.setUserId(otherUserId);
+            concurrent.setSportHallId(hallId);
+            concurrent.setSportId(sportId);
+            concurrent.setBookingDate(date.plusWeeks(1));
+            concurrent.setTimeSlotId(slotId);
+            concurrent.setPurpose("concurrent");
+            bookingRepository.saveAndFlush(concurrent);
+            throw new DataIntegrityViolationException("duplicate key value violates unique constraint \"" + BookingService.ACTIVE_SLOT_INDEX + "\"");
+        }).doCallRealMethod().when(bookingRepository).saveAllAndFlush(any());
+
+        RecurringBookingResult result = bookingService.createRecurringBooking(adminId, hallId, sportId, slotId,
+                date, date.plusWeeks(2), 1, "club");
+
+        assertEquals(2, result.getCreated());
+        assertNull(result.getOccurrences().get(1).getBookingId());
+        assertEquals("A booking already exists for the given combination.", result.getOccurrences().get(1).getError());
+        verify(bookingRepository, times(2)).saveAllAndFlush(any());
+    }
+
+    @Test
+    void createRecurringBooking_datesKeepBeingTaken_throwsConflict() {
+        doThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint \"" + BookingService.ACTIVE_SLOT_INDEX + "\""))
+                .when(bookingRepository).saveAllAndFlush(any());
+
+        assertThrows(ConflictException.class, () -> bookingService.createRecurringBooking(adminId, hallId, sportId, slotId,
+                date, date.plusWeeks(2), 1, "club"));
+        verify(bookingRepository, times(BookingService.RECURRING_ATTEMPTS)).saveAllAndFlush(any());
+    }
+
+    @Test
+    void createRecurringBooking_invalidInput_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> bookingService.createRecurringBooking(userId, hallId, sportId, slotId,
+                date.plusWeeks(1), date, 1, "club"));
+        assertThrows(BadRequestException.class, () -> bookingService.createRecurringBooking(userId, hallId, sportId, slotId,
+                date, date.plusYears(2), 1, "club"));
+        assertThrows(BadRequestException.class, () -> bookingService.createRecurringBooking(userId, UUID.randomUUID(), sportId, slotId,
+                date, date.plusWeeks(2), 1, "club"));
+        assertThrows(BadRequestException.class, () -> bookingService.createRecurringBooking(userId, hallId, sportId, slotId,
+                date, date.plusWeeks(2), 0, "club"));
+    }
+
+    @Test
+    void createRecurringBooking_dataAccessResourceFailureException_throwsServiceUnavailable() {
+        doThrow(new DataAccessResourceFailureException("DB down"))
+                .when(bookingRepository).findBySlotsAndStatusIn(any(), any(), any(), any());
+
+        assertThrows(ServiceUnavailableException.class, () -> bookingService.createRecurringBooking(userId, hallId, sportId, slotId,
+                date, date.plusWeeks(2), 1, "club"));
+    }
+
+    @Test
+    void createRecurringBooking_insertsInJdbcBatches() {
+        entityManager.flush();  // write the setUp fixtures now, so only the recurring booking's inserts are counted
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        RecurringBookingResult result = bookingService.createRecurringBooking(adminId, hallId, sportId, slotId,
+                date, date.plusWeeks(11), 1, "semester course");
+        entityManager.flush();  // the outbox entries are written with the rest of the transaction
+
+        assertEquals(12, result.getCreated());
+        assertEquals(24, statistics.getEntityInsertCount());  // 12 bookings + 12 outbox entries
+        // one batched statement per table instead of one per row, plus the handful of reads
+        assertTrue(statistics.getPrepareStatementCount() < 12, "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    // The email itself is sent later by the dispatcher, never on the request thread
+    private void assertQueued(Booking b, BookingNotificationType type) {
+        assertTrue(notificationOutboxRepository.findByBookingId(b.getId()).stream()
+                .anyMatch(entry -> entry.getType() == type && entry.getStatus() == OutboxStatus.pending));
+        verify(notificationDispatcher, atLeastOnce()).wakeUp();
+        verifyNoInteractions(notificationService);
     }
 }
@@ -0,0 +1,165 @@
+package com.ouroboros.pestadiumbookingbe.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ouroboros.pestadiumbookingbe.model.Booking;
+import com.ouroboros.pestadiumbookingbe.model.NotificationOutboxEntry;
+import com.ouroboros.pestadiumbookingbe.model.OutboxStatus;
+import com.ouroboros.pestadiumbookingbe.notifier.BookingNotificationType;
+import com.ouroboros.pestadiumbookingbe.repository.NotificationOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@Transactional
+class NotificationDispatcherTest {
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EntityManager entityManager;
+    @MockitoSpyBean
+    private NotificationService notificationService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    NotificationOutboxEntry entry;
+
+    @BeforeEach
+    void setup() throws Exception {
+        Booking booking = new Booking();
+        booking.setId(UUID.randomUUID());
+        booking.setUserId(UUID.randomUUID());
+        booking.setPurpose("outbox");
+
+        entry = new NotificationOutboxEntry();
+        entry.setBookingId(booking.getId());
+        entry.setType(BookingNotificationType.CREATION);
+        entry.setPayload(objectMapper.writeValueAsString(booking));
+        notificationOutboxRepository.saveAndFlush(entry);
+    }
+
+    private NotificationOutboxEntry reload() {
+        entityManager.clear();
+        return notificationOutboxRepository.findById(entry.getId()).orElseThrow();
+    }
+
+    @Test
+    void process_success_marksSent() {
+        doReturn(CompletableFuture.completedFuture(null)).when(notificationService).deliver(any(), any());
+
+        notificationDispatcher.process(entry).join();
+
+        NotificationOutboxEntry sent = reload();
+        assertEquals(OutboxStatus.sent, sent.getStatus());
+        assertEquals(1, sent.getAttempts());
+        assertNotNull(sent.getSentAt());
+        verify(notificationService).deliver(argThat(b -> b.getId().equals(entry.getBookingId())), eq(BookingNotificationType.CREATION));
+    }
+
+    @Test
+    void process_failure_schedulesRetryWithBackoff() {
+        doReturn(CompletableFuture.failedFuture(new RuntimeException("mailgun down"))).when(notificationService).deliver(any(), any());
+        OffsetDateTime before = OffsetDateTime.now();
+
+        notificationDispatcher.process(entry).join();
+
+        NotificationOutboxEntry retried = reload();
+        assertEquals(OutboxStatus.pending, retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertEquals("mailgun down", retried.getLastError());
+        assertTrue(retried.getNextAttemptAt().isAfter(before.plusSeconds(20)));
+    }
+
+    @Test
+    void process_lastAttemptFails_marksFailed() {
+        doReturn(CompletableFuture.failedFuture(new RuntimeException("mailgun down"))).when(notificationService).deliver(any(), any());
+        entry.setAttempts(7);
+
+        notificationDispatcher.process(entry).join();
+
+        assertEquals(OutboxStatus.failed, reload().getStatus());
+    }
+
+    @Test
+    void process_handlerThrows_schedulesRetry() {
+        doThrow(new RuntimeException("render failed")).when(notificationService).deliver(any(), any());
+
+        notificationDispatcher.process(entry).join();
+
+        NotificationOutboxEntry retried = reload();
+        assertEquals(OutboxStatus.pending, retried.getStatus());
+        assertEquals("render failed", retried.getLastError());
+    }
+
+    @Test
+    void claim_onlyOnceWhileLeased() {
+        OffsetDateTime now = OffsetDateTime.now().plusSeconds(1);
+
+        assertEquals(1, notificationOutboxRepository.claim(entry.getId(), now, now.plusMinutes(5)));
+        assertEquals(0, notificationOutboxRepository.claim(entry.getId(), now, now.plusMinutes(5)));
+    }
+
+    @Test
+    void backoff_doublesUpToCap() {
+        assertEquals(Duration.ofSeconds(30), notificationDispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(60), notificationDispatcher.backoff(2));
+        assertEquals(Duration.ofHours(1), notificationDispatcher.backoff(30));
+    }
+
+    private NotificationOutboxEntry savedEntry() throws Exception {
+        NotificationOutboxEntry other = new NotificationOutboxEntry();
+        other.setBookingId(UUID.randomUUID());
+        other.setType(BookingNotificationType.CREATION);
+        other.setPayload(entry.getPayload());
+        return notificationOutboxRepository.saveAndFlush(other);
+    }
+
+    @Test
+    void purge_deletesEntriesPastRetentionAndCountsFailed() throws Exception {
+        OffsetDateTime now = OffsetDateTime.now();
+        notificationOutboxRepository.markSent(entry.getId(), now.minusDays(8));
+        UUID recentlySent = savedEntry().getId();
+        notificationOutboxRepository.markSent(recentlySent, now.minusDays(1));
+        UUID oldFailed = savedEntry().getId();
+        notificationOutboxRepository.markFailed(oldFailed, OutboxStatus.failed, now.minusDays(31), "gone");
+        UUID recentFailed = savedEntry().getId();
+        notificationOutboxRepository.markFailed(recentFailed, OutboxStatus.failed, now.minusDays(1), "bounced");
+
+        ReflectionTestUtils.setField(notificationDispatcher, "enabled", true);  // off in tests so nothing is dispatched
+        try {
+            notificationDispatcher.purge();
+        } finally {
+            ReflectionTestUtils.setField(notificationDispatcher, "enabled", false);
+        }
+
+        entityManager.clear();
+        assertFalse(notificationOutboxRepository.existsById(entry.getId()));
+        assertTrue(notificationOutboxRepository.existsById(recentlySent));
+        assertFalse(notificationOutboxRepository.existsById(oldFailed));
+        assertTrue(notificationOutboxRepository.existsById(recentFailed));
+        assertEquals(1, meterRegistry.get("notifications.outbox.failed").gauge().value());
+    }
+}
@@ -1,5 +1,6 @@
 package com.ouroboros.pestadiumbookingbe.service;
 
+import com.ouroboros.pestadiumbookingbe.config.ProfileRoleCache;
 import com.ouroboros.pestadiumbookingbe.exception.BadRequestException;
 import com.ouroboros.pestadiumbookingbe.exception.RequestTimeoutException;
 import com.ouroboros.pestadiumbookingbe.exception.ServiceUnavailableException;
@@ -8,6 +9,7 @@ import com.ouroboros.pestadiumbookingbe.model.ProfileType;
 import com.ouroboros.pestadiumbookingbe.repository.ProfileRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.dao.DataAccessResourceFailureException;
@@ -30,6 +32,8 @@ class ProfileServiceTest {
     private ProfileService profileService;
     @MockitoSpyBean
     private ProfileRepository profileRepository;
+    @Autowired
+    private ProfileRoleCache profileRoleCache;
 
     private Profile existing;
     private Profile anotherExisting;
@@ -199,5 +203,13 @@ class ProfileServiceTest {
             profileService.toggleAdmin(existing.getId())
         );
     }
+    @Test
+    void toggleAdmin_evictsCachedRole() {
+        assertEquals(ProfileType.user, profileRoleCache.roleOf(existing.getId()).orElseThrow());
+
+        profileService.toggleAdmin(existing.getId());
+
+        assertEquals(ProfileType.admin, profileRoleCache.roleOf(existing.getId()).orElseThrow());
+    }
 
 }
@@ -0,0 +1,122 @@
+package com.ouroboros.pestadiumbookingbe.service;
+
+import com.ouroboros.pestadiumbookingbe.model.SportHall;
+import com.ouroboros.pestadiumbookingbe.model.SportHallLocation;
+import com.ouroboros.pestadiumbookingbe.repository.SportHallRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@Transactional
+class ReferenceDataCacheTest {
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @MockitoSpyBean
+    private SportHallRepository sportHallRepository;
+
+    UUID hallId;
+
+    @BeforeEach
+    void setup() {
+        hallId = saveHall("Hall").getId();
+        // flush now so the insert is not replayed in the middle of the first load
+        sportHallRepository.flush();
+        clearInvocations(sportHallRepository);
+    }
+
+    private SportHall saveHall(String name) {
+        SportHall h = new SportHall();
+        h.setSportId(UUID.randomUUID());
+        h.setName(name);
+        h.setLocation(SportHallLocation.indoor);
+        h.setCapacity(10);
+        return sportHallRepository.save(h);
+    }
+
+    @Test
+    void repeatedReads_servedFromSnapshot() {
+        referenceDataCache.getSportHalls();
+        referenceDataCache.getSportHalls();
+        Optional<SportHall> hall = referenceDataCache.findSportHall(hallId);
+
+        assertTrue(hall.isPresent());
+        verify(sportHallRepository, times(1)).findAll();
+        verify(sportHallRepository, never()).findById(any());
+    }
+
+    @Test
+    void snapshot_isImmutableCopy() {
+        List<SportHall> halls = referenceDataCache.getSportHalls();
+
+        assertThrows(UnsupportedOperationException.class, () -> halls.add(new SportHall()));
+        assertNotSame(sportHallRepository.findById(hallId).orElseThrow(), referenceDataCache.findSportHall(hallId).orElseThrow());
+    }
+
+    @Test
+    void savingHall_invalidatesSnapshot() {
+        long version = referenceDataCache.sportHallSnapshot().version();
+        UUID newHallId = saveHall("New Hall").getId();
+
+        assertTrue(referenceDataCache.getSportHalls().stream().anyMatch(h -> h.getId().equals(newHallId)));
+        assertNotEquals(version, referenceDataCache.sportHallSnapshot().version());
+    }
+
+    @Test
+    void etag_stableAcrossReloads_changesWithContent() {
+        ReferenceDataCache.Snapshot<SportHall> first = referenceDataCache.sportHallSnapshot();
+        referenceDataCache.invalidate();
+        ReferenceDataCache.Snapshot<SportHall> reloaded = referenceDataCache.sportHallSnapshot();
+
+        assertNotEquals(first.version(), reloaded.version());
+        assertEquals(first.etag(), reloaded.etag());
+        assertEquals(first.lastModified(), reloaded.lastModified());
+
+        saveHall("New Hall");
+        ReferenceDataCache.Snapshot<SportHall> changed = referenceDataCache.sportHallSnapshot();
+
+        assertNotEquals(first.etag(), changed.etag());
+        assertTrue(changed.lastModified().isAfter(first.lastModified()));
+    }
+
+    @Test
+    void unknownId_readsThroughToDatabase() {
+        referenceDataCache.getSportHalls();
+
+        // a row written behind the cache's back, e.g. from the Supabase dashboard
+        UUID outsideId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO sport_halls (id, sport_id, name, location, capacity, created_at) VALUES (?, ?, ?, ?, ?, ?)",
+                outsideId, UUID.randomUUID(), "Outside Hall", "outdoor", 5, Timestamp.from(Instant.now()));
+
+        assertTrue(referenceDataCache.findSportHall(outsideId).isPresent());
+        assertTrue(referenceDataCache.getSportHalls().stream().anyMatch(h -> h.getId().equals(outsideId)));
+        assertTrue(referenceDataCache.findSportHall(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void invalidate_reloadsOnNextRead() {
+        referenceDataCache.getSportHalls();
+        referenceDataCache.invalidate();
+        referenceDataCache.getSportHalls();
+
+        verify(sportHallRepository, times(2)).findAll();
+    }
+}
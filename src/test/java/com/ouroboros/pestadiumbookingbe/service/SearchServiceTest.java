@@ -1,5 +1,8 @@
 package com.ouroboros.pestadiumbookingbe.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ouroboros.pestadiumbookingbe.dto.BookingListItem;
+import com.ouroboros.pestadiumbookingbe.dto.BookingPage;
 import com.ouroboros.pestadiumbookingbe.exception.BadRequestException;
 import com.ouroboros.pestadiumbookingbe.exception.ServiceUnavailableException;
 import com.ouroboros.pestadiumbookingbe.model.*;
@@ -43,6 +46,8 @@ class SearchServiceTest {
 
     @Autowired
     private BookingService bookingService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     UUID userId, hallId, slotId, sportId;
     UUID otherUserId, otherHallId, otherSlotId, otherSportId;
@@ -141,14 +146,14 @@ class SearchServiceTest {
     @Test
     void getSportHallById_dataAccessResourceFailure_throwsServiceUnavailable() {
         doThrow(DataAccessResourceFailureException.class)
-                .when(sportHallRepository).findById(hallId);
+                .when(sportHallRepository).findAll();
 
         assertThrows(ServiceUnavailableException.class, () -> searchService.getSportHallById(hallId));
     }
     @Test
     void getSportHallById_genericException_throwsRuntimeException() {
         doThrow(RuntimeException.class)
-                .when(sportHallRepository).findById(hallId);
+                .when(sportHallRepository).findAll();
 
         assertThrows(RuntimeException.class, () -> searchService.getSportHallById(hallId));
     }
@@ -167,14 +172,14 @@ class SearchServiceTest {
     @Test
     void getTimeSlotById_dataAccessResourceFailure_throwsServiceUnavailable() {
         doThrow(DataAccessResourceFailureException.class)
-                .when(timeSlotRepository).findById(slotId);
+                .when(timeSlotRepository).findAll();
 
         assertThrows(ServiceUnavailableException.class, () -> searchService.getTimeSlotById(slotId));
     }
     @Test
     void getTimeSlotById_genericException_throwsRuntimeException() {
         doThrow(RuntimeException.class)
-                .when(timeSlotRepository).findById(slotId);
+                .when(timeSlotRepository).findAll();
 
         assertThrows(RuntimeException.class, () -> searchService.getTimeSlotById(slotId));
     }
@@ -423,4 +428,171 @@ class SearchServiceTest {
         assertEquals(1, result.size());
         assertEquals(b2.getId(), result.getFirst().getId());
     }
+
+    @Test
+    void filterBookings_studentIdIgnoresCase() {
+        Booking mine = bookingService.createBooking(adminId, hallId, sportId, date, slotId, "p1");
+        bookingService.createBooking(userId, otherHallId, otherSportId, date, otherSlotId, "p2");
+        List<Booking> result = searchService.filterBookings(Optional.of("ADMIN"), Optional.empty(), Optional.empty(), Optional.empty());
+        assertEquals(1, result.size());
+        assertEquals(mine.getId(), result.getFirst().getId());
+    }
+
+    @Test
+    void filterBookings_studentIdWildcardsMatchedLiterally() {
+        bookingService.createBooking(userId, hallId, sportId, date, slotId, "p1");
+        bookingService.createBooking(otherUserId, otherHallId, otherSportId, date, otherSlotId, "p2");
+        assertEquals(0, searchService.filterBookings(Optional.of("%"), Optional.empty(), Optional.empty(), Optional.empty()).size());
+        assertEquals(0, searchService.filterBookings(Optional.of("1234_678"), Optional.empty(), Optional.empty(), Optional.empty()).size());
+    }
+
+    @Test
+    void filterBookings_studentIdAndProfileType() {
+        Booking mine = bookingService.createBooking(userId, hallId, sportId, date, slotId, "p1");
+        bookingService.createBooking(adminId, otherHallId, otherSportId, date, otherSlotId, "p2");
+        // both filters go through the one profile join, each booking is returned once
+        List<Booking> users = searchService.filterBookings(Optional.of(studentId), Optional.empty(), Optional.of(ProfileType.user), Optional.empty());
+        List<Booking> admins = searchService.filterBookings(Optional.of(studentId), Optional.empty(), Optional.of(ProfileType.admin), Optional.empty());
+        assertEquals(1, users.size());
+        assertEquals(mine.getId(), users.getFirst().getId());
+        assertEquals(0, admins.size());
+    }
+
+    @Test
+    void filterBookings_locationAndStatus() {
+        Booking indoorPending = bookingService.createBooking(adminId, hallId, sportId, date, slotId, "p1");
+        Booking indoorConfirmed = bookingService.createBooking(adminId, hallId, sportId, otherDate, slotId, "p2");
+        Booking outdoorConfirmed = bookingService.createBooking(userId, otherHallId, otherSportId, date, otherSlotId, "p3");
+        bookingService.confirmBooking(indoorConfirmed.getId(), adminId);
+        bookingService.confirmBooking(outdoorConfirmed.getId(), adminId);
+
+        List<Booking> indoorConfirmedOnly = searchService.filterBookings(Optional.empty(), Optional.of(SportHallLocation.indoor), Optional.empty(), Optional.of(Status.confirmed));
+        List<Booking> indoorPendingOnly = searchService.filterBookings(Optional.empty(), Optional.of(SportHallLocation.indoor), Optional.empty(), Optional.of(Status.pending));
+        assertEquals(List.of(indoorConfirmed.getId()), indoorConfirmedOnly.stream().map(Booking::getId).toList());
+        assertEquals(List.of(indoorPending.getId()), indoorPendingOnly.stream().map(Booking::getId).toList());
+    }
+
+    @Test
+    void filterBookings_locationAndProfileType() {
+        bookingService.createBooking(adminId, hallId, sportId, date, slotId, "p1");
+        Booking outdoorUser = bookingService.createBooking(userId, otherHallId, otherSportId, date, otherSlotId, "p2");
+        bookingService.createBooking(adminId, otherHallId, otherSportId, otherDate, otherSlotId, "p3");
+        List<Booking> result = searchService.filterBookings(Optional.empty(), Optional.of(SportHallLocation.outdoor), Optional.of(ProfileType.user), Optional.empty());
+        assertEquals(1, result.size());
+        assertEquals(outdoorUser.getId(), result.getFirst().getId());
+    }
+
+    @Test
+    void filterBookings_emptyStudentIdWithStatus_filtersByStatusOnly() {
+        Booking pending = bookingService.createBooking(userId, hallId, sportId, date, slotId, "p1");
+        Booking confirmed = bookingService.createBooking(otherUserId, otherHallId, otherSportId, date, otherSlotId, "p2");
+        bookingService.confirmBooking(confirmed.getId(), adminId);
+        List<Booking> result = searchService.filterBookings(Optional.of(""), Optional.empty(), Optional.empty(), Optional.of(Status.pending));
+        assertEquals(1, result.size());
+        assertEquals(pending.getId(), result.getFirst().getId());
+    }
+
+    @Test
+    void filterBookingsPage_byStudentId() {
+        Booking mine = bookingService.createBooking(userId, hallId, sportId, date, slotId, "p1");
+        bookingService.createBooking(otherUserId, otherHallId, otherSportId, date, otherSlotId, "p2");
+        BookingPage page = searchService.filterBookingsPage(Optional.of(studentId.substring(2, 6)), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+        assertEquals(1, page.getItems().size());
+        assertEquals(mine.getId(), page.getItems().getFirst().id());
+        assertEquals(userId, page.getItems().getFirst().userId());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getBookingsPage_walksAllPages() {
+        Booking b1 = bookingService.createBooking(userId, hallId, sportId, date, slotId, "p1");
+        Booking b2 = bookingService.createBooking(otherUserId, otherHallId, otherSportId, otherDate, otherSlotId, "p2");
+        Booking b3 = bookingService.createBooking(adminId, hallId, sportId, otherDate, otherSlotId, "p3");
+
+        BookingPage first = searchService.getBookingsPage(Optional.empty(), Optional.of(2));
+        assertEquals(2, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+
+        BookingPage second = searchService.getBookingsPage(Optional.of(first.getNextCursor()), Optional.of(2));
+        assertEquals(1, second.getItems().size());
+        assertNull(second.getNextCursor());
+
+        List<UUID> seen = new java.util.ArrayList<>(first.getItems().stream().map(BookingListItem::id).toList());
+        seen.addAll(second.getItems().stream().map(BookingListItem::id).toList());
+        assertEquals(3, seen.size());
+        assertTrue(seen.containsAll(List.of(b1.getId(), b2.getId(), b3.getId())));
+    }
+
+    @Test
+    void getBookingsPage_invalidCursorOrSize_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> searchService.getBookingsPage(Optional.of("not-a-cursor"), Optional.empty()));
+        assertThrows(BadRequestException.class, () -> searchService.getBookingsPage(Optional.empty(), Optional.of(0)));
+    }
+
+    @Test
+    void getBookingsByUserIdPage_onlyUserBookings() {
+        bookingService.createBooking(adminId, hallId, sportId, date, slotId, "a1");
+        bookingService.createBooking(adminId, otherHallId, otherSportId, date, otherSlotId, "a2");
+        bookingService.createBooking(userId, hallId, sportId, otherDate, slotId, "mine");
+
+        BookingPage first = searchService.getBookingsByUserIdPage(adminId, Optional.empty(), Optional.of(1));
+        BookingPage second = searchService.getBookingsByUserIdPage(adminId, Optional.of(first.getNextCursor()), Optional.of(1));
+
+        assertEquals(adminId, first.getItems().getFirst().userId());
+        assertEquals(adminId, second.getItems().getFirst().userId());
+        assertNotEquals(first.getItems().getFirst().id(), second.getItems().getFirst().id());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void filterBookingsPage_appliesFiltersAndCursor() {
+        bookingService.createBooking(adminId, hallId, sportId, date, slotId, "a1");
+        bookingService.createBooking(adminId, hallId, sportId, otherDate, slotId, "a2");
+        bookingService.createBooking(userId, otherHallId, otherSportId, date, otherSlotId, "outdoor");
+
+        BookingPage first = searchService.filterBookingsPage(Optional.empty(), Optional.of(SportHallLocation.indoor),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(1));
+        BookingPage second = searchService.filterBookingsPage(Optional.empty(), Optional.of(SportHallLocation.indoor),
+                Optional.empty(), Optional.empty(), Optional.of(first.getNextCursor()), Optional.of(1));
+
+        assertEquals(hallId, first.getItems().getFirst().sportHallId());
+        assertEquals(hallId, second.getItems().getFirst().sportHallId());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void filterBookingsPage_invalidCursor_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> searchService.filterBookingsPage(Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.of("not-a-cursor"), Optional.empty()));
+    }
+
+    @Test
+    void getBookingsPage_itemsWriteOnlyListColumnsAndSelectedFields() throws Exception {
+        bookingService.createBooking(userId, hallId, sportId, date, slotId, "not part of the list");
+        BookingListItem item = searchService.getBookingsPage(Optional.empty(), Optional.empty()).getItems().getFirst();
+
+        String whole = objectMapper.writeValueAsString(item);
+        assertTrue(whole.contains("\"bookingDate\""));
+        assertFalse(whole.contains("purpose"));
+
+        String trimmed = objectMapper.writeValueAsString(item.only(BookingListItem.parseFields("id, status")));
+        assertTrue(trimmed.contains("\"id\"") && trimmed.contains("\"status\""));
+        assertFalse(trimmed.contains("bookingDate"));
+
+        assertThrows(BadRequestException.class, () -> BookingListItem.parseFields("id,purpose"));
+    }
+
+    @Test
+    void exportBookings_writesOneLinePerBooking() throws Exception {
+        bookingService.createBooking(userId, hallId, sportId, date, slotId, "p1");
+        bookingService.createBooking(otherUserId, otherHallId, otherSportId, otherDate, otherSlotId, "p2");
+
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        searchService.exportBookings(out);
+
+        String[] lines = out.toString(java.nio.charset.StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{"));
+    }
 }
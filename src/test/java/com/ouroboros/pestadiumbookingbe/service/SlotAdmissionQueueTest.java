@@ -0,0 +1,150 @@
+package com.ouroboros.pestadiumbookingbe.service;
+
+import com.ouroboros.pestadiumbookingbe.config.DatabaseBulkhead;
+import com.ouroboros.pestadiumbookingbe.exception.ConflictException;
+import com.ouroboros.pestadiumbookingbe.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SlotAdmissionQueueTest {
+
+    private SlotAdmissionQueue slotAdmissionQueue;
+    private final Set<SlotOccupancyIndex.SlotKey> occupied = ConcurrentHashMap.newKeySet();
+    // in the index but no longer in the database, e.g. cancelled on another instance
+    private final Set<SlotOccupancyIndex.SlotKey> stale = ConcurrentHashMap.newKeySet();
+    private final SlotOccupancyIndex.SlotKey key = new SlotOccupancyIndex.SlotKey(UUID.randomUUID(), LocalDate.now().plusDays(1), UUID.randomUUID());
+
+    @BeforeEach
+    void setup() {
+        SlotOccupancyIndex slotOccupancyIndex = mock(SlotOccupancyIndex.class);
+        when(slotOccupancyIndex.isOccupied(any(SlotOccupancyIndex.SlotKey.class)))
+                .thenAnswer(invocation -> occupied.contains(invocation.getArgument(0)) || stale.contains(invocation.getArgument(0)));
+        when(slotOccupancyIndex.confirmOccupied(any(SlotOccupancyIndex.SlotKey.class))).thenAnswer(invocation -> occupied.contains(invocation.getArgument(0)));
+
+        DatabaseBulkhead databaseBulkhead = new DatabaseBulkhead();
+        ReflectionTestUtils.setField(databaseBulkhead, "poolSize", 11);
+        ReflectionTestUtils.setField(databaseBulkhead, "reservedConnections", 1);
+        ReflectionTestUtils.setField(databaseBulkhead, "maxExports", 1);
+        ReflectionTestUtils.setField(databaseBulkhead, "maxWaiting", 100);
+        ReflectionTestUtils.setField(databaseBulkhead, "acquireTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.invokeMethod(databaseBulkhead, "init");
+
+        slotAdmissionQueue = new SlotAdmissionQueue();
+        ReflectionTestUtils.setField(slotAdmissionQueue, "slotOccupancyIndex", slotOccupancyIndex);
+        ReflectionTestUtils.setField(slotAdmissionQueue, "databaseBulkhead", databaseBulkhead);
+        ReflectionTestUtils.setField(slotAdmissionQueue, "enabled", true);
+        ReflectionTestUtils.setField(slotAdmissionQueue, "maxDepth", 100);
+        ReflectionTestUtils.setField(slotAdmissionQueue, "maxWait", Duration.ofSeconds(5));
+    }
+
+    @Test
+    void stampede_oneWinnerOthersConflictWithoutRunning() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger executed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 50; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return slotAdmissionQueue.admit(key, () -> {
+                            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                            executed.incrementAndGet();
+                            try {
+                                Thread.sleep(20);
+                            } catch (InterruptedException e) {
+                                throw new RuntimeException(e);
+                            }
+                            occupied.add(key);  // what afterCommit does for the winner
+                            running.decrementAndGet();
+                            return "booked";
+                        });
+                    } catch (ConflictException e) {
+                        return "conflict";
+                    }
+                }));
+            }
+            start.countDown();
+        }
+
+        long booked = 0;
+        for (Future<String> result : results) {
+            if (result.get().equals("booked")) {
+                booked++;
+            }
+        }
+        assertEquals(1, booked);
+        assertEquals(1, executed.get());
+        assertEquals(1, maxRunning.get());
+        SlotAdmissionQueue.Stats stats = slotAdmissionQueue.stats();
+        assertEquals(1, stats.admitted());
+        assertEquals(49, stats.rejected());
+        assertEquals(0, stats.lanes());
+        assertEquals(0, stats.queued());
+    }
+
+    @Test
+    void failedHead_nextInLaneIsAdmitted() {
+        assertThrows(IllegalStateException.class, () -> slotAdmissionQueue.admit(key, () -> {
+            throw new IllegalStateException("quota");
+        }));
+
+        assertEquals("booked", slotAdmissionQueue.admit(key, () -> "booked"));
+    }
+
+    @Test
+    void occupiedCell_rejectedImmediately() {
+        occupied.add(key);
+
+        assertThrows(ConflictException.class, () -> slotAdmissionQueue.admit(key, () -> fail("must not run")));
+    }
+
+    @Test
+    void staleIndexHit_confirmedFreeAndAdmitted() {
+        stale.add(key);
+
+        assertEquals("booked", slotAdmissionQueue.admit(key, () -> "booked"));
+    }
+
+    @Test
+    void laneFull_shed() throws Exception {
+        ReflectionTestUtils.setField(slotAdmissionQueue, "maxDepth", 1);
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> head = executor.submit(() -> slotAdmissionQueue.admit(key, () -> {
+                inside.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return "booked";
+            }));
+            inside.await();
+
+            assertThrows(ServiceUnavailableException.class, () -> slotAdmissionQueue.admit(key, () -> "second"));
+            release.countDown();
+            assertEquals("booked", head.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, slotAdmissionQueue.stats().shed());
+    }
+}
@@ -0,0 +1,114 @@
+package com.ouroboros.pestadiumbookingbe.service;
+
+import com.ouroboros.pestadiumbookingbe.model.Booking;
+import com.ouroboros.pestadiumbookingbe.model.Status;
+import com.ouroboros.pestadiumbookingbe.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class SlotOccupancyIndexTest {
+
+    private SlotOccupancyIndex slotOccupancyIndex;
+    private BookingRepository bookingRepository;
+    private Booking booking;
+
+    @BeforeEach
+    void setup() {
+        bookingRepository = mock(BookingRepository.class);
+        slotOccupancyIndex = new SlotOccupancyIndex();
+        ReflectionTestUtils.setField(slotOccupancyIndex, "bookingRepository", bookingRepository);
+
+        booking = new Booking();
+        booking.setId(UUID.randomUUID());
+        booking.setUserId(UUID.randomUUID());
+        booking.setSportHallId(UUID.randomUUID());
+        booking.setTimeSlotId(UUID.randomUUID());
+        booking.setBookingDate(LocalDate.now().plusDays(1));
+        booking.setStatus(Status.pending);
+    }
+
+    @Test
+    void warmUp_loadsActiveBookings() {
+        when(bookingRepository.findByStatusInAndBookingDateGreaterThanEqual(anyList(), any())).thenReturn(List.of(booking));
+
+        assertFalse(slotOccupancyIndex.isReady());
+        slotOccupancyIndex.warmUp();
+
+        assertTrue(slotOccupancyIndex.isReady());
+        assertTrue(slotOccupancyIndex.isOccupied(SlotOccupancyIndex.SlotKey.of(booking)));
+        assertEquals(1, slotOccupancyIndex.activeBookings(booking.getUserId(), booking.getBookingDate()));
+    }
+
+    @Test
+    void warmUp_releaseCommittedDuringQuery_isNotUndone() {
+        // the query read the booking as active, then its cancellation committed before the rows were applied
+        when(bookingRepository.findByStatusInAndBookingDateGreaterThanEqual(anyList(), any())).thenAnswer(invocation -> {
+            slotOccupancyIndex.release(booking);
+            return List.of(booking);
+        });
+
+        slotOccupancyIndex.warmUp();
+
+        assertFalse(slotOccupancyIndex.isOccupied(SlotOccupancyIndex.SlotKey.of(booking)));
+        assertEquals(0, slotOccupancyIndex.activeBookings(booking.getUserId(), booking.getBookingDate()));
+        assertTrue(slotOccupancyIndex.occupiedSlots(booking.getSportHallId(), booking.getBookingDate()).isEmpty());
+    }
+
+    @Test
+    void reconcile_dropsBookingsNoLongerActive() {
+        slotOccupancyIndex.occupy(booking);
+        when(bookingRepository.findByStatusInAndBookingDateGreaterThanEqual(anyList(), any())).thenReturn(List.of());
+
+        slotOccupancyIndex.reconcile();
+
+        assertFalse(slotOccupancyIndex.isOccupied(SlotOccupancyIndex.SlotKey.of(booking)));
+        assertEquals(0, slotOccupancyIndex.activeBookings(booking.getUserId(), booking.getBookingDate()));
+    }
+
+    @Test
+    void confirmOccupied_hitStillInDatabase_keepsCell() {
+        slotOccupancyIndex.occupy(booking);
+        SlotOccupancyIndex.SlotKey key = SlotOccupancyIndex.SlotKey.of(booking);
+        when(bookingRepository.existsBySportHallIdAndBookingDateAndTimeSlotIdAndStatusIn(any(), any(), any(), anyList())).thenReturn(true);
+
+        assertTrue(slotOccupancyIndex.confirmOccupied(key));
+        assertTrue(slotOccupancyIndex.isOccupied(key));
+    }
+
+    @Test
+    void confirmOccupied_cancelledElsewhere_dropsStaleCell() {
+        slotOccupancyIndex.occupy(booking);
+        SlotOccupancyIndex.SlotKey key = SlotOccupancyIndex.SlotKey.of(booking);
+        when(bookingRepository.existsBySportHallIdAndBookingDateAndTimeSlotIdAndStatusIn(any(), any(), any(), anyList())).thenReturn(false);
+
+        assertFalse(slotOccupancyIndex.confirmOccupied(key));
+        assertFalse(slotOccupancyIndex.isOccupied(key));
+        assertEquals(0, slotOccupancyIndex.activeBookings(booking.getUserId(), booking.getBookingDate()));
+    }
+
+    @Test
+    void confirmOccupied_miss_doesNotQuery() {
+        assertFalse(slotOccupancyIndex.confirmOccupied(SlotOccupancyIndex.SlotKey.of(booking)));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void warmUp_queryFails_indexStaysNotReady() {
+        when(bookingRepository.findByStatusInAndBookingDateGreaterThanEqual(anyList(), any())).thenThrow(new RuntimeException("down"));
+
+        slotOccupancyIndex.warmUp();
+
+        assertFalse(slotOccupancyIndex.isReady());
+        assertFalse(slotOccupancyIndex.covers(booking.getBookingDate()));
+    }
+}
@@ -0,0 +1,159 @@
+package com.ouroboros.pestadiumbookingbe.util;
+
+import com.ouroboros.pestadiumbookingbe.dto.BookingSummary;
+import com.ouroboros.pestadiumbookingbe.model.*;
+import com.ouroboros.pestadiumbookingbe.repository.ProfileRepository;
+import com.ouroboros.pestadiumbookingbe.repository.SportHallRepository;
+import com.ouroboros.pestadiumbookingbe.repository.TimeSlotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@Transactional
+class BookingMapperTest {
+
+    @Autowired
+    private BookingMapper bookingMapper;
+    @MockitoSpyBean
+    private ProfileRepository profileRepository;
+    @Autowired
+    private SportHallRepository sportHallRepository;
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    UUID userId, adminId, hallId, slotId;
+
+    @BeforeEach
+    void setup() {
+        userId = saveProfile("12345678@vgu.edu.vn", "12345678", ProfileType.user);
+        adminId = saveProfile("admin@example.com", "admin123", ProfileType.admin);
+
+        SportHall h = new SportHall();
+        h.setSportId(UUID.randomUUID());
+        h.setName("Test Hall");
+        h.setLocation(SportHallLocation.indoor);
+        h.setCapacity(10);
+        hallId = sportHallRepository.save(h).getId();
+
+        TimeSlot t = new TimeSlot();
+        t.setStartTime(LocalTime.of(9, 0));
+        t.setEndTime(LocalTime.of(10, 0));
+        t.setDurationMinutes(60);
+        t.setActive(true);
+        slotId = timeSlotRepository.save(t).getId();
+        clearInvocations(profileRepository);
+    }
+
+    private UUID saveProfile(String email, String studentId, ProfileType type) {
+        Profile p = new Profile();
+        p.setEmail(email);
+        p.setStudentId(studentId);
+        p.setType(type);
+        return profileRepository.save(p).getId();
+    }
+
+    private Booking booking(UUID canceledBy) {
+        Booking b = new Booking();
+        b.setId(UUID.randomUUID());
+        b.setUserId(userId);
+        b.setSportHallId(hallId);
+        b.setTimeSlotId(slotId);
+        b.setBookingDate(LocalDate.of(2025, 6, 10));
+        b.setPurpose("Training");
+        b.setCanceledBy(canceledBy);
+        return b;
+    }
+
+    @Test
+    void toBookingSummaries_resolvesProfilesInOneQuery() {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            bookings.add(booking(i % 2 == 0 ? adminId : null));
+        }
+
+        List<BookingSummary> summaries = bookingMapper.toBookingSummaries(bookings);
+
+        assertEquals(20, summaries.size());
+        for (int i = 0; i < 20; i++) {
+            BookingSummary summary = summaries.get(i);
+            assertEquals(bookings.get(i).getId(), summary.getBookingId());
+            assertEquals("12345678@vgu.edu.vn", summary.getSenderEmailAddress());
+            assertEquals(i % 2 == 0 ? "admin@example.com" : "", summary.getCanceledByEmailAddress());
+            assertEquals("Test Hall", summary.getSportHallName());
+            assertEquals(LocalTime.of(9, 0), summary.getStartTime());
+        }
+        verify(profileRepository, times(1)).findAllById(anyIterable());
+        verify(profileRepository, never()).findById(any());
+    }
+
+    @Test
+    void toBookingSummary_matchesBulkResult() {
+        Booking b = booking(adminId);
+
+        BookingSummary single = bookingMapper.toBookingSummary(b);
+        BookingSummary bulk = bookingMapper.toBookingSummaries(List.of(b)).getFirst();
+
+        assertEquals(bulk.getSenderEmailAddress(), single.getSenderEmailAddress());
+        assertEquals(bulk.getCanceledByEmailAddress(), single.getCanceledByEmailAddress());
+        assertEquals(bulk.getSportHallName(), single.getSportHallName());
+        assertEquals(bulk.getEndTime(), single.getEndTime());
+    }
+
+    @Test
+    void toBookingSummaries_profileQueryFails_referenceDataStillResolved() {
+        doThrow(new RuntimeException("boom")).when(profileRepository).findAllById(anyIterable());
+
+        BookingSummary summary = bookingMapper.toBookingSummaries(List.of(booking(adminId))).getFirst();
+
+        assertEquals("", summary.getSenderEmailAddress());
+        assertEquals("Test Hall", summary.getSportHallName());
+        assertEquals(LocalTime.of(9, 0), summary.getStartTime());
+    }
+
+    @Test
+    void toBookingSummaries_unknownReferences_leftEmpty() {
+        Booking b = booking(null);
+        b.setUserId(UUID.randomUUID());
+        b.setSportHallId(UUID.randomUUID());
+
+        BookingSummary summary = bookingMapper.toBookingSummaries(List.of(b)).getFirst();
+
+        assertEquals("", summary.getSenderEmailAddress());
+        assertNull(summary.getSportHallName());
+        assertTrue(bookingMapper.toBookingSummaries(List.of()).isEmpty());
+    }
+
+    @Test
+    void toBookingSummary_sequenceGrowsWithEachChange() {
+        OffsetDateTime created = OffsetDateTime.parse("2025-06-01T08:00:00Z");
+        Booking b = booking(null);
+        b.setCreatedAt(created);
+        b.setUpdatedAt(created);
+        assertEquals(0, bookingMapper.toBookingSummary(b).getSequence());
+
+        b.setUpdatedAt(created.plusMinutes(1));
+        assertEquals(60, bookingMapper.toBookingSummary(b).getSequence());
+
+        // a cancellation only sets canceledAt
+        b.setCanceledAt(created.plusMinutes(2));
+        assertEquals(120, bookingMapper.toBookingSummary(b).getSequence());
+    }
+}
@@ -0,0 +1,126 @@
+package com.ouroboros.pestadiumbookingbe.util;
+
+import com.mailgun.api.v3.MailgunMessagesApi;
+import com.mailgun.model.message.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EmailSenderTest {
+
+    private EmailSender emailSender;
+    private MailgunMessagesApi mailgunMessagesApi;
+
+    @BeforeEach
+    void setup() {
+        emailSender = new EmailSender();
+        ReflectionTestUtils.setField(emailSender, "apiKey", "TEST_API_KEY");
+        ReflectionTestUtils.setField(emailSender, "domain", "TEST_DOMAIN");
+        ReflectionTestUtils.setField(emailSender, "emailFrom", "test@example.com");
+        ReflectionTestUtils.setField(emailSender, "connectTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(emailSender, "readTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(emailSender, "poolSize", 2);
+        ReflectionTestUtils.setField(emailSender, "maxAttempts", 3);
+        ReflectionTestUtils.setField(emailSender, "initialBackoff", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(emailSender, "batchWindow", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(emailSender, "batchMaxSize", 20);
+        emailSender.init();
+
+        mailgunMessagesApi = mock(MailgunMessagesApi.class);
+        ReflectionTestUtils.setField(emailSender, "mailgunMessagesApi", mailgunMessagesApi);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailSender.shutdown();
+    }
+
+    @Test
+    void sendEmailAsync_sameRecipientWithinWindow_sentAsOneMessage() throws Exception {
+        CompletableFuture<Void> first = emailSender.sendEmailAsync("user@test.com", "Booking Confirmation", "one", null);
+        CompletableFuture<Void> second = emailSender.sendEmailAsync("user@test.com", "Booking Confirmation", "two", null);
+        CompletableFuture<Void> other = emailSender.sendEmailAsync("other@test.com", "Booking Confirmation", "three", null);
+
+        CompletableFuture.allOf(first, second, other).get(5, TimeUnit.SECONDS);
+
+        verify(mailgunMessagesApi, times(2)).sendMessage(eq("TEST_DOMAIN"), any(Message.class));
+    }
+
+    @Test
+    void sendEmail_bypassesBatchWindow() {
+        emailSender.sendEmail("user@test.com", "Subject", "text");
+
+        verify(mailgunMessagesApi, times(1)).sendMessage(eq("TEST_DOMAIN"), any(Message.class));
+    }
+
+    @Test
+    void sendEmail_nonTransientFailure_notRetried() {
+        when(mailgunMessagesApi.sendMessage(any(), any(Message.class))).thenThrow(new IllegalArgumentException("bad request"));
+
+        assertThrows(RuntimeException.class, () -> emailSender.sendEmail("user@test.com", "Subject", "text"));
+        verify(mailgunMessagesApi, times(1)).sendMessage(any(), any(Message.class));
+    }
+
+    @Test
+    void sendEmailWithIcsAttachment_writesNoTempFile() throws Exception {
+        File tmp = new File(System.getProperty("java.io.tmpdir"));
+        FilenameFilter icsFiles = (dir, name) -> name.startsWith("booking") && name.endsWith(".ics");
+        int before = Objects.requireNonNull(tmp.list(icsFiles)).length;
+
+        emailSender.sendEmailWithIcsAttachment("user@test.com", "Subject", "text",
+                "BEGIN:VCALENDAR\r\nEND:VCALENDAR\r\n".getBytes(StandardCharsets.UTF_8));
+
+        verify(mailgunMessagesApi, times(1)).sendMessage(eq("TEST_DOMAIN"), any(Message.class));
+        assertEquals(before, Objects.requireNonNull(tmp.list(icsFiles)).length);
+    }
+
+    private static byte[] calendar(String uid, String summary) {
+        return ("BEGIN:VCALENDAR\r\nVERSION:2.0\r\nBEGIN:VEVENT\r\nSUMMARY:" + summary + "\r\nUID:" + uid
+                + "\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static EmailSender.PendingEmail pending(byte[] ics) {
+        return new EmailSender.PendingEmail("Subject", "text", ics, new CompletableFuture<>());
+    }
+
+    @Test
+    void mergeCalendars_sameUidInBatch_keepsLatestEvent() {
+        byte[] merged = EmailSender.mergeCalendars(List.of(
+                pending(calendar("a@test", "created")),
+                pending(calendar("b@test", "other")),
+                pending(calendar("a@test", "modified"))));
+
+        assertEquals("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"
+                + "BEGIN:VEVENT\r\nSUMMARY:other\r\nUID:b@test\r\nEND:VEVENT\r\n"
+                + "BEGIN:VEVENT\r\nSUMMARY:modified\r\nUID:a@test\r\nEND:VEVENT\r\n"
+                + "END:VCALENDAR\r\n", new String(merged, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void mergeCalendars_cancellationWithOtherEvents_dropsMethod() {
+        byte[] cancel = "BEGIN:VCALENDAR\r\nVERSION:2.0\r\nMETHOD:CANCEL\r\nBEGIN:VEVENT\r\nUID:a@test\r\nSTATUS:CANCELLED\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n"
+                .getBytes(StandardCharsets.UTF_8);
+
+        String mixed = new String(EmailSender.mergeCalendars(List.of(pending(calendar("b@test", "other")), pending(cancel))), StandardCharsets.UTF_8);
+        String cancelOnly = new String(EmailSender.mergeCalendars(List.of(pending(calendar("a@test", "created")), pending(cancel))), StandardCharsets.UTF_8);
+
+        assertFalse(mixed.contains("METHOD:"));
+        assertTrue(mixed.contains("UID:b@test") && mixed.contains("STATUS:CANCELLED"));
+        assertEquals(new String(cancel, StandardCharsets.UTF_8), cancelOnly);
+    }
+}
@@ -0,0 +1,135 @@
+package com.ouroboros.pestadiumbookingbe.util;
+
+import com.ouroboros.pestadiumbookingbe.dto.BookingSummary;
+import net.fortuna.ical4j.data.CalendarOutputter;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Property;
+import net.fortuna.ical4j.model.component.VEvent;
+import net.fortuna.ical4j.model.parameter.Cn;
+import net.fortuna.ical4j.model.property.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IcsFileGeneratorTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T08:30:00Z");
+    private static final ZoneId ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+
+    private final IcsFileGenerator icsFileGenerator = new IcsFileGenerator(Clock.fixed(NOW, ZoneOffset.UTC));
+
+    private static BookingSummary summary(String hall, String purpose) {
+        BookingSummary summary = new BookingSummary("user@test.com", LocalDate.of(2025, 6, 10),
+                LocalTime.of(7, 0), LocalTime.of(8, 30), hall, purpose, "");
+        summary.setBookingId(UUID.fromString("3f2b8c1e-5d4a-4e6f-9a7b-1c2d3e4f5a6b"));
+        return summary;
+    }
+
+    // What the previous ical4j based generator wrote for the same booking, with UTC times and fixed DTSTAMP/UID
+    private static byte[] ical4j(BookingSummary summary) throws Exception {
+        DateTime start = new DateTime(ZonedDateTime.of(summary.getBookingDate(), summary.getStartTime(), ZONE).toInstant().toEpochMilli());
+        start.setUtc(true);
+        DateTime end = new DateTime(ZonedDateTime.of(summary.getBookingDate(), summary.getEndTime(), ZONE).toInstant().toEpochMilli());
+        end.setUtc(true);
+        DateTime stamp = new DateTime(NOW.toEpochMilli());
+        stamp.setUtc(true);
+
+        VEvent meeting = new VEvent();
+        ((DtStamp) meeting.getProperty(Property.DTSTAMP)).setDateTime(stamp);
+        meeting.getProperties().add(new DtStart(start));
+        meeting.getProperties().add(new DtEnd(end));
+        meeting.getProperties().add(new Summary("Booking for " + summary.getSportHallName()));
+        Organizer organizer = new Organizer(URI.create("mailto:noreply@mg.api-stadium-booking.systems"));
+        organizer.getParameters().add(new Cn("Group Ouroboros"));
+        meeting.getProperties().add(organizer);
+        meeting.getProperties().add(new Description("Purpose: " + summary.getPurpose()));
+        meeting.getProperties().add(new Uid(summary.getBookingId() + "@api-stadium-booking.systems"));
+        meeting.getProperties().add(new Location("Sport Hall: " + summary.getSportHallName()));
+        meeting.getProperties().add(new Sequence(summary.getSequence()));
+        Calendar calendar = new Calendar();
+        calendar.getProperties().add(new ProdId("-//PE Stadium Booking//iCal4j 1.0//EN"));
+        calendar.getProperties().add(Version.VERSION_2_0);
+        calendar.getProperties().add(CalScale.GREGORIAN);
+        calendar.getComponents().add(meeting);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CalendarOutputter().output(calendar, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void generateIcsStream_matchesIcal4jOutput() throws Exception {
+        BookingSummary summary = summary("Hall A", "Football training");
+
+        assertArrayEquals(ical4j(summary), icsFileGenerator.generateIcsStream(summary).toByteArray());
+    }
+
+    @Test
+    void generateIcsStream_escapedAndFolded_matchesIcal4jOutput() throws Exception {
+        BookingSummary summary = summary("Hall B; north wing, court 2",
+                "Weekly practice for the faculty team, bring shoes; C:\\kit list\nsecond line of the purpose that is long enough to fold twice over the limit");
+
+        assertArrayEquals(ical4j(summary), icsFileGenerator.generateIcsStream(summary).toByteArray());
+    }
+
+    @Test
+    void generateIcsStream_utcTimesAndStableUid() {
+        String ics = icsFileGenerator.generateIcsStream(summary("Hall A", "Training")).toString(StandardCharsets.UTF_8);
+
+        assertTrue(ics.contains("\r\nDTSTAMP:20250601T083000Z\r\n"));
+        assertTrue(ics.contains("\r\nDTSTART:20250610T000000Z\r\n"));
+        assertTrue(ics.contains("\r\nDTEND:20250610T013000Z\r\n"));
+        assertTrue(ics.contains("\r\nUID:3f2b8c1e-5d4a-4e6f-9a7b-1c2d3e4f5a6b@api-stadium-booking.systems\r\n"));
+        assertEquals(ics, icsFileGenerator.generateIcsStream(summary("Hall A", "Training")).toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void generateIcsStream_nonAsciiFoldedOnCharacterBoundaries() {
+        String purpose = "Giải bóng đá sinh viên khoa Công nghệ thông tin, vòng loại và bán kết năm 2025 ".repeat(3);
+        byte[] ics = icsFileGenerator.generateIcsStream(summary("Sân vận động", purpose)).toByteArray();
+
+        String text = new String(ics, StandardCharsets.UTF_8);
+        for (String line : text.split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= IcsFileGenerator.FOLD_LENGTH, line);
+        }
+        assertArrayEquals(ics, text.getBytes(StandardCharsets.UTF_8));
+        assertTrue(text.replace("\r\n ", "").contains("DESCRIPTION:Purpose: " + purpose.replace(",", "\\,")));
+    }
+
+    @Test
+    void generateIcsStream_sequenceFromSummary() {
+        BookingSummary summary = summary("Hall A", "Training");
+        summary.setSequence(3600);
+
+        String ics = icsFileGenerator.generateIcsStream(summary).toString(StandardCharsets.UTF_8);
+
+        assertTrue(ics.contains("\r\nSEQUENCE:3600\r\n"));
+        assertFalse(ics.contains("METHOD:"));
+        assertFalse(ics.contains("STATUS:"));
+    }
+
+    @Test
+    void generateCancellationIcsStream_cancelsSameEventWithHigherSequence() {
+        BookingSummary summary = summary("Hall A", "Training");
+        summary.setSequence(3600);
+
+        String ics = icsFileGenerator.generateCancellationIcsStream(summary).toString(StandardCharsets.UTF_8);
+
+        assertTrue(ics.contains("\r\nCALSCALE:GREGORIAN\r\nMETHOD:CANCEL\r\nBEGIN:VEVENT\r\n"));
+        assertTrue(ics.contains("\r\nUID:3f2b8c1e-5d4a-4e6f-9a7b-1c2d3e4f5a6b@api-stadium-booking.systems\r\n"));
+        assertTrue(ics.contains("\r\nSEQUENCE:3601\r\nSTATUS:CANCELLED\r\nEND:VEVENT\r\n"));
+    }
+
+    @Test
+    void generateIcsStream_missingFields_returnsEmpty() {
+        assertEquals(0, icsFileGenerator.generateIcsStream(null).size());
+        assertEquals(0, icsFileGenerator.generateIcsStream(summary(null, "Training")).size());
+        assertEquals(0, icsFileGenerator.generateIcsStream(new BookingSummary()).size());
+    }
+}